@@ -0,0 +1,74 @@
+package com.bank.report.cache;
+
+import com.bank.report.client.Deadline;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import java.util.function.Function;
+import reactor.core.publisher.Mono;
+
+/**
+ * Async cache of a downstream lookup keyed by customer id.
+ * Values older than the soft TTL are served as they are while a reload runs in the
+ * background; failed loads are never cached. Without a backing cache every call goes
+ * straight to the loader.
+ * A miss starts loading on subscription, with the Reactor context of the subscriber
+ * that triggered it minus its deadline; each subscriber waits only up to its own
+ * deadline. Background refreshes run without a context.
+ */
+public class NearCache<V> {
+
+    private final String name;
+    private final AsyncLoadingCache<String, V> cache;
+    private final Function<String, Mono<V>> loader;
+
+    NearCache(String name, AsyncLoadingCache<String, V> cache, Function<String, Mono<V>> loader) {
+        this.name = name;
+        this.cache = cache;
+        this.loader = loader;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the cached value of a customer, loading it on a miss
+     * @param customerId the customer id
+     * @return Mono of the value, empty when the downstream has none
+     */
+    public Mono<V> get(String customerId) {
+        if (cache == null) {
+            return loader.apply(customerId);
+        }
+        // La carga empieza al suscribirse y recibe el contexto del suscriptor (staleness) sin su deadline,
+        // que cada suscriptor aplica por su lado; un suscriptor cancelado no debe cancelar la carga compartida
+        return Deadline.limit(Mono.deferContextual(context -> Mono.fromFuture(
+                cache.get(customerId,
+                        (key, executor) -> loader.apply(key).contextWrite(Deadline.shared(context)).toFuture()),
+                true)));
+    }
+
+    /**
+     * Drops the cached value of a customer
+     */
+    public void invalidate(String customerId) {
+        if (cache != null) {
+            cache.synchronous().invalidate(customerId);
+        }
+    }
+
+    /**
+     * Reloads the cached value of a customer in the background, if it is cached
+     */
+    public void refresh(String customerId) {
+        if (cache != null && cache.getIfPresent(customerId) != null) {
+            cache.synchronous().refresh(customerId);
+        }
+    }
+
+    /**
+     * Number of customers currently cached
+     */
+    public long size() {
+        return cache != null ? cache.synchronous().estimatedSize() : 0;
+    }
+}
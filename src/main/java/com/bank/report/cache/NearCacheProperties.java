@@ -0,0 +1,109 @@
+package com.bank.report.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the in-process caches in front of the downstream clients.
+ * Each entry of {@code near-cache.caches} is keyed by cache name (accounts, credits, debits).
+ */
+@Data
+@ConfigurationProperties(prefix = "near-cache")
+public class NearCacheProperties {
+
+    /** Whether lookups go through the caches at all. */
+    private boolean enabled = true;
+
+    private Map<String, Spec> caches = new HashMap<>();
+
+    private Invalidation invalidation = new Invalidation();
+
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Returns the settings of a cache, or the defaults when none are configured.
+     */
+    public Spec spec(String name) {
+        return caches.getOrDefault(name, new Spec());
+    }
+
+    /**
+     * Settings of a single cache.
+     */
+    @Data
+    public static class Spec {
+
+        /** Age after which a cached value is served once more and refreshed in the background. */
+        private Duration softTtl = Duration.ofSeconds(30);
+
+        /** Age after which a cached value is no longer served. */
+        private Duration hardTtl = Duration.ofMinutes(5);
+
+        /** Maximum number of customers kept in the cache. */
+        private long maximumSize = 10_000;
+    }
+
+    /**
+     * Last-known-good copies of downstream answers, served marked as stale while the downstream fails.
+     */
+    @Data
+    public static class Snapshot {
+
+        /** Whether answers are kept and served as fallback. */
+        private boolean enabled = true;
+
+        /** Age after which a snapshot is no longer served. */
+        private Duration maxAge = Duration.ofHours(24);
+
+        /** Maximum number of snapshots kept per endpoint. */
+        private long maximumSize = 50_000;
+
+        /** Answers with more elements than this are not kept. */
+        private int maxElements = 1_000;
+    }
+
+    /**
+     * Kafka consumer that invalidates cached customers when the owning services publish changes.
+     */
+    @Data
+    public static class Invalidation {
+
+        /** Whether change events are consumed. */
+        private boolean enabled = false;
+
+        private String bootstrapServers = "localhost:9092";
+
+        private String groupId = "report-cache-invalidation";
+
+        /** Where a new consumer group starts reading; latest skips events older than any cached value. */
+        private String autoOffsetReset = "latest";
+
+        /** Caches affected by each topic. */
+        private Map<String, List<String>> topics = new HashMap<>(Map.of(
+                "account-events", List.of("accounts"),
+                "credit-events", List.of("credits"),
+                "debit-card-events", List.of("debits"),
+                "transaction-events", List.of("accounts", "credits")));
+
+        /** Whether affected customers are evicted or reloaded in the background. */
+        private Mode mode = Mode.EVICT;
+
+        /** Maximum number of events handled together. */
+        private int batchSize = 500;
+
+        /** Maximum time an incomplete batch waits for more events. */
+        private Duration batchTimeout = Duration.ofMillis(200);
+    }
+
+    /**
+     * What happens to a cached customer when a change event arrives.
+     */
+    public enum Mode {
+        EVICT,
+        REFRESH
+    }
+}
@@ -0,0 +1,109 @@
+package com.bank.report.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates the near caches used by the downstream clients and keeps track of them,
+ * so a customer can be evicted from every cache at once.
+ * Hit, miss and load-duration metrics are published under cache.* tagged with the cache name.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(NearCacheProperties.class)
+public class NearCacheRegistry {
+
+    private final NearCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+
+    public NearCacheRegistry(NearCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates a cache in front of a downstream lookup
+     * @param name the cache name (accounts, credits, debits)
+     * @param loader the downstream lookup by customer id
+     * @return the cache
+     */
+    public <V> NearCache<V> create(String name, Function<String, Mono<V>> loader) {
+        NearCache<V> nearCache = new NearCache<>(name, buildCache(name, loader), loader);
+        caches.put(name, nearCache);
+        return nearCache;
+    }
+
+    private <V> AsyncLoadingCache<String, V> buildCache(String name, Function<String, Mono<V>> loader) {
+        if (!properties.isEnabled()) {
+            log.info("Near cache {} disabled", name);
+            return null;
+        }
+
+        NearCacheProperties.Spec spec = properties.spec(name);
+        log.info("Creating near cache {}: softTtl={}, hardTtl={}, maximumSize={}",
+                name, spec.getSoftTtl(), spec.getHardTtl(), spec.getMaximumSize());
+
+        AsyncLoadingCache<String, V> cache = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .refreshAfterWrite(spec.getSoftTtl())
+                .expireAfterWrite(spec.getHardTtl())
+                .recordStats()
+                .buildAsync((customerId, executor) -> loader.apply(customerId).toFuture());
+
+        new CaffeineCacheMetrics<>(cache.synchronous(), name, Tags.empty()).bindTo(meterRegistry);
+        return cache;
+    }
+
+    /**
+     * Drops a customer from every cache
+     * @param customerId the customer id
+     */
+    public void evictCustomer(String customerId) {
+        log.debug("Evicting customer {} from near caches", customerId);
+        caches.values().forEach(cache -> cache.invalidate(customerId));
+    }
+
+    /**
+     * Drops a customer from one cache
+     * @param name the cache name
+     * @param customerId the customer id
+     */
+    public void evict(String name, String customerId) {
+        NearCache<?> cache = caches.get(name);
+        if (cache != null) {
+            cache.invalidate(customerId);
+        }
+    }
+
+    /**
+     * Reloads a customer of one cache in the background
+     * @param name the cache name
+     * @param customerId the customer id
+     */
+    public void refresh(String name, String customerId) {
+        NearCache<?> cache = caches.get(name);
+        if (cache != null) {
+            cache.refresh(customerId);
+        }
+    }
+
+    public Collection<NearCache<?>> getCaches() {
+        return caches.values();
+    }
+
+    public NearCache<?> getCache(String name) {
+        return caches.get(name);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bank.report.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint over the product near caches.
+ * GET /actuator/productcache lists the cache sizes,
+ * DELETE /actuator/productcache/{customerId} evicts one customer.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "productcache")
+@RequiredArgsConstructor
+public class ProductCacheEndpoint {
+
+    private final NearCacheRegistry nearCacheRegistry;
+
+    @ReadOperation
+    public Map<String, Long> sizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        nearCacheRegistry.getCaches().forEach(cache -> sizes.put(cache.getName(), cache.size()));
+        return sizes;
+    }
+
+    @DeleteOperation
+    public void evictCustomer(@Selector String customerId) {
+        log.info("Evicting customer {} from product caches", customerId);
+        nearCacheRegistry.evictCustomer(customerId);
+    }
+}
@@ -0,0 +1,160 @@
+package com.bank.report.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+/**
+ * Consumes account, credit, debit-card and transaction change events and evicts
+ * (or refreshes) the affected customers from the near caches.
+ * Events are handled in batches, de-duplicated by cache and customer, and only
+ * pulled from Kafka as fast as they are processed. Consumer lag is published as
+ * report.cache.invalidation.lag.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "near-cache.invalidation", name = "enabled", havingValue = "true")
+public class ProductChangeEventListener implements DisposableBean {
+
+    private final NearCacheRegistry nearCacheRegistry;
+    private final NearCacheProperties.Invalidation properties;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong lag = new AtomicLong();
+    private final Counter invalidations;
+    private final KafkaReceiver<String, String> receiver;
+
+    private Disposable subscription;
+
+    public ProductChangeEventListener(NearCacheRegistry nearCacheRegistry,
+                                      NearCacheProperties nearCacheProperties,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry) {
+        this.nearCacheRegistry = nearCacheRegistry;
+        this.properties = nearCacheProperties.getInvalidation();
+        this.objectMapper = objectMapper;
+        this.receiver = KafkaReceiver.create(receiverOptions());
+
+        Gauge.builder("report.cache.invalidation.lag", lag, AtomicLong::get)
+                .description("Change events not yet consumed by the cache invalidation listener")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("report.cache.invalidation.applied")
+                .description("Cache entries evicted or refreshed from change events")
+                .register(meterRegistry);
+    }
+
+    private ReceiverOptions<String, String> receiverOptions() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, properties.getBootstrapServers());
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, properties.getGroupId());
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getBatchSize());
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, properties.getAutoOffsetReset());
+
+        return ReceiverOptions.<String, String>create(config)
+                .subscription(properties.getTopics().keySet());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Starting cache invalidation listener on topics {}", properties.getTopics().keySet());
+
+        subscription = receiver.receive()
+                .bufferTimeout(properties.getBatchSize(), properties.getBatchTimeout(), true)
+                .concatMap(batch -> Mono.fromRunnable(() -> applyBatch(batch))
+                        .then(updateLag()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Cache invalidation listener failed, retrying: {}",
+                                signal.failure().getMessage())))
+                .subscribe();
+    }
+
+    private void applyBatch(List<ReceiverRecord<String, String>> batch) {
+        Set<String> targets = new HashSet<>();
+        for (ReceiverRecord<String, String> record : batch) {
+            String customerId = customerId(record);
+            if (customerId != null) {
+                properties.getTopics().getOrDefault(record.topic(), List.of())
+                        .forEach(cacheName -> targets.add(cacheName + ":" + customerId));
+            }
+        }
+
+        for (String target : targets) {
+            int separator = target.indexOf(':');
+            String cacheName = target.substring(0, separator);
+            String customerId = target.substring(separator + 1);
+            if (properties.getMode() == NearCacheProperties.Mode.REFRESH) {
+                nearCacheRegistry.refresh(cacheName, customerId);
+            } else {
+                nearCacheRegistry.evict(cacheName, customerId);
+            }
+        }
+        invalidations.increment(targets.size());
+        log.debug("Applied {} cache invalidations from {} events", targets.size(), batch.size());
+
+        batch.forEach(record -> record.receiverOffset().acknowledge());
+    }
+
+    /**
+     * Customer id of an event: the customerId field of the payload, or the record key.
+     */
+    private String customerId(ConsumerRecord<String, String> record) {
+        try {
+            if (record.value() != null) {
+                JsonNode customerId = objectMapper.readTree(record.value()).get("customerId");
+                if (customerId != null && !customerId.isNull()) {
+                    return customerId.asText();
+                }
+            }
+        } catch (Exception ex) {
+            log.warn("Unreadable event on topic {} at offset {}: {}", record.topic(), record.offset(), ex.getMessage());
+        }
+        return record.key();
+    }
+
+    private Mono<Void> updateLag() {
+        return receiver.doOnConsumer(consumer -> {
+                    Set<TopicPartition> assignment = consumer.assignment();
+                    long total = 0;
+                    for (Map.Entry<TopicPartition, Long> end : consumer.endOffsets(assignment).entrySet()) {
+                        total += Math.max(0, end.getValue() - consumer.position(end.getKey()));
+                    }
+                    return total;
+                })
+                .doOnNext(lag::set)
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
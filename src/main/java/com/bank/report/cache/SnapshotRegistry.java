@@ -0,0 +1,75 @@
+package com.bank.report.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the last-known-good snapshot stores of the downstream clients.
+ * Each store publishes report.snapshot.hits, report.snapshot.misses,
+ * report.snapshot.age and report.snapshot.size tagged with the endpoint name.
+ */
+@Slf4j
+@Component
+public class SnapshotRegistry {
+
+    private final NearCacheProperties.Snapshot properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, SnapshotStore<?>> stores = new ConcurrentHashMap<>();
+
+    public SnapshotRegistry(NearCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getSnapshot();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates the snapshot store of a downstream endpoint
+     * @param name the endpoint name (accounts, credits, transactions)
+     * @return the store
+     */
+    public <V> SnapshotStore<V> create(String name) {
+        Cache<String, SnapshotStore.Snapshot<V>> cache = null;
+        if (properties.isEnabled()) {
+            log.info("Creating snapshot store {}: maxAge={}, maximumSize={}",
+                    name, properties.getMaxAge(), properties.getMaximumSize());
+            cache = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaximumSize())
+                    .expireAfterWrite(properties.getMaxAge())
+                    .build();
+        }
+
+        SnapshotStore<V> store = new SnapshotStore<>(name, cache, properties.getMaxElements(),
+                Counter.builder("report.snapshot.hits")
+                        .description("Failed downstream calls answered from the last-known-good snapshot")
+                        .tag("endpoint", name)
+                        .register(meterRegistry),
+                Counter.builder("report.snapshot.misses")
+                        .description("Failed downstream calls without a snapshot, answered empty")
+                        .tag("endpoint", name)
+                        .register(meterRegistry),
+                DistributionSummary.builder("report.snapshot.age")
+                        .description("Age of the snapshots served")
+                        .baseUnit("milliseconds")
+                        .tag("endpoint", name)
+                        .register(meterRegistry));
+        Gauge.builder("report.snapshot.size", store, SnapshotStore::size)
+                .description("Snapshots kept")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+
+        stores.put(name, store);
+        return store;
+    }
+
+    public Collection<SnapshotStore<?>> getStores() {
+        return stores.values();
+    }
+}
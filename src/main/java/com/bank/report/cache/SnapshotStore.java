@@ -0,0 +1,104 @@
+package com.bank.report.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Last-known-good answers of one downstream endpoint, keyed by customer.
+ * Every successful answer replaces the snapshot; when the endpoint fails or
+ * times out the snapshot is served instead and the request is marked stale.
+ * Without a snapshot the caller gets an empty answer, as before.
+ */
+@Slf4j
+public class SnapshotStore<V> {
+
+    private final String name;
+    private final Cache<String, Snapshot<V>> cache;
+    private final int maxElements;
+    private final Counter hits;
+    private final Counter misses;
+    private final DistributionSummary age;
+
+    SnapshotStore(String name, Cache<String, Snapshot<V>> cache, int maxElements,
+                  Counter hits, Counter misses, DistributionSummary age) {
+        this.name = name;
+        this.cache = cache;
+        this.maxElements = maxElements;
+        this.hits = hits;
+        this.misses = misses;
+        this.age = age;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxElements() {
+        return maxElements;
+    }
+
+    /**
+     * Keeps a successful answer as the snapshot of the key
+     * @param key the customer id, plus any parameter that changes the answer
+     * @param value the answer
+     */
+    public void save(String key, V value) {
+        if (cache == null || value == null) {
+            return;
+        }
+        if (value instanceof Collection<?> collection && collection.size() > maxElements) {
+            cache.invalidate(key);
+            return;
+        }
+        cache.put(key, new Snapshot<>(value, Instant.now()));
+    }
+
+    /**
+     * Answer to serve when the endpoint failed
+     * @param key the key the answer was saved with
+     * @param error the failure of the endpoint
+     * @return Mono of the snapshot, empty when there is none
+     */
+    public Mono<V> fallback(String key, Throwable error) {
+        return Mono.deferContextual(context -> {
+            Snapshot<V> snapshot = cache != null ? cache.getIfPresent(key) : null;
+            if (snapshot == null) {
+                misses.increment();
+                log.warn("Returning empty {} for {} due to error: {}", name, key, error.getMessage());
+                return Mono.empty();
+            }
+
+            Duration snapshotAge = Duration.between(snapshot.capturedAt, Instant.now());
+            hits.increment();
+            age.record(snapshotAge.toMillis());
+            Staleness.mark(context, snapshot.capturedAt);
+            log.warn("Serving {} snapshot of {} ({} old) due to error: {}",
+                    name, key, snapshotAge, error.getMessage());
+            return Mono.just(snapshot.value);
+        });
+    }
+
+    /**
+     * Number of snapshots currently kept
+     */
+    public long size() {
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+
+    static final class Snapshot<V> {
+
+        private final V value;
+        private final Instant capturedAt;
+
+        private Snapshot(V value, Instant capturedAt) {
+            this.value = value;
+            this.capturedAt = capturedAt;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.report.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.http.HttpHeaders;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Tracks, for one report request, whether any part of the answer came from a
+ * last-known-good snapshot and how old the oldest such part is.
+ * It travels in the Reactor context; the response then carries
+ * {@code Warning: 110} and {@code X-Data-Age} (seconds).
+ */
+public final class Staleness {
+
+    public static final String DATA_AGE_HEADER = "X-Data-Age";
+    public static final String STALE_WARNING = "110 report \"Response is Stale\"";
+
+    private static final String CONTEXT_KEY = Staleness.class.getName();
+
+    private final AtomicLong oldestCapturedAt = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * Context holding this tracker
+     */
+    public Context context() {
+        return Context.of(CONTEXT_KEY, this);
+    }
+
+    /**
+     * Records that part of the answer of the request in the context was captured at the given instant
+     */
+    static void mark(ContextView context, Instant capturedAt) {
+        context.<Staleness>getOrEmpty(CONTEXT_KEY)
+                .ifPresent(staleness -> staleness.oldestCapturedAt
+                        .accumulateAndGet(capturedAt.toEpochMilli(), Math::min));
+    }
+
+    public boolean isStale() {
+        return oldestCapturedAt.get() != Long.MAX_VALUE;
+    }
+
+    /**
+     * Adds the staleness headers when the answer is stale
+     */
+    public void writeHeaders(HttpHeaders headers) {
+        long capturedAt = oldestCapturedAt.get();
+        if (capturedAt == Long.MAX_VALUE) {
+            return;
+        }
+        long age = Duration.ofMillis(Math.max(0, System.currentTimeMillis() - capturedAt)).toSeconds();
+        headers.set(HttpHeaders.WARNING, STALE_WARNING);
+        headers.set(DATA_AGE_HEADER, Long.toString(age));
+    }
+}
@@ -2,12 +2,29 @@ package com.bank.report.client;
 
 
 
+import com.bank.report.cache.NearCache;
+import com.bank.report.cache.NearCacheRegistry;
+import com.bank.report.cache.SnapshotRegistry;
+import com.bank.report.cache.SnapshotStore;
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.config.DownstreamWebClientFactory;
+import com.bank.report.exception.BulkheadFullException;
 import com.bank.report.exception.ServiceUnavailableException;
 import com.bank.report.model.dto.AccountResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import javax.security.auth.login.AccountNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,13 +41,51 @@ import reactor.core.publisher.Mono;
 @Component
 public class AccountClient {
 
+    private static final int BULK_UNKNOWN = -1;
+    private static final int BULK_UNSUPPORTED = 0;
+    private static final int BULK_SUPPORTED = 1;
+
     private final WebClient webClient;
+    private final RequestCoalescer requestCoalescer;
+    private final NearCache<List<AccountResponse>> accountsByCustomer;
+    private final SnapshotStore<List<AccountResponse>> accountSnapshots;
+    private final AdaptiveTimeout getAccountTimeout;
+    private final AdaptiveTimeout accountsByCustomerTimeout;
+    private final ReactiveBulkhead bulkhead;
+    private final AdaptiveTimeout accountsByIdTimeout;
+    private final DownstreamProperties.Batch batch;
+    private final AtomicInteger bulkLookup = new AtomicInteger(BULK_UNKNOWN);
+    private final io.github.resilience4j.circuitbreaker.CircuitBreaker accountCircuitBreaker;
+    private final io.github.resilience4j.retry.Retry accountRetry;
 
-    public AccountClient(WebClient.Builder webClientBuilder,
+    public AccountClient(DownstreamWebClientFactory webClientFactory,
+                         RequestCoalescer requestCoalescer,
+                         NearCacheRegistry nearCacheRegistry,
+                         SnapshotRegistry snapshotRegistry,
+                         DownstreamProperties downstreamProperties,
+                         MeterRegistry meterRegistry,
+                         CircuitBreakerRegistry circuitBreakerRegistry,
+                         RetryRegistry retryRegistry,
                          @Value("${account.service.url}") String accountServiceUrl) {
-        this.webClient = webClientBuilder
-                .baseUrl(accountServiceUrl)
-                .build();
+        this.webClient = webClientFactory.create("account", accountServiceUrl);
+        this.requestCoalescer = requestCoalescer;
+        this.accountsByCustomer = nearCacheRegistry.create("accounts", this::fetchAccountsByCustomer);
+        this.accountSnapshots = snapshotRegistry.create("accounts");
+
+        DownstreamProperties.Timeout timeout = downstreamProperties.client("account").getTimeout();
+        this.getAccountTimeout = new AdaptiveTimeout(Duration.ofSeconds(2), timeout);
+        this.accountsByCustomerTimeout = new AdaptiveTimeout(Duration.ofSeconds(3), timeout);
+        this.bulkhead = new ReactiveBulkhead("account",
+                downstreamProperties.client("account").getBulkhead(), meterRegistry);
+        this.accountsByIdTimeout = new AdaptiveTimeout(Duration.ofSeconds(3), timeout);
+        this.batch = downstreamProperties.client("account").getBatch();
+        // Las llamadas internas no pasan por el proxy de las anotaciones: se aplican los mismos operadores
+        this.accountCircuitBreaker = circuitBreakerRegistry.circuitBreaker("accountService");
+        this.accountRetry = retryRegistry.retry("accountService");
+
+        Gauge.builder("report.account.bulk.lookup", bulkLookup, AtomicInteger::get)
+                .description("Whether the Account Service supports bulk lookups (1), does not (0) or is unknown (-1)")
+                .register(meterRegistry);
     }
 
     /**
@@ -42,15 +97,18 @@ public class AccountClient {
     @Retry(name = "accountService")
     @TimeLimiter(name = "accountService")
     public Mono<AccountResponse> getAccount(String accountId) {
+        return fetchAccount(accountId);
+    }
+
+    private Mono<AccountResponse> fetchAccount(String accountId) {
         log.debug("Calling Account Service to get account with id: {}", accountId);
 
-        return webClient.get()
-                .uri("/api/accounts/{id}", accountId)
-                .retrieve()
-                .onStatus(status -> status.value() == 404,
-                        response -> Mono.error(new AccountNotFoundException(accountId)))
-                .bodyToMono(AccountResponse.class)
-                .timeout(Duration.ofSeconds(2))
+        return bulkhead.apply(getAccountTimeout.apply(webClient.get()
+                        .uri("/api/accounts/{id}", accountId)
+                        .retrieve()
+                        .onStatus(status -> status.value() == 404,
+                                response -> Mono.error(new AccountNotFoundException(accountId)))
+                        .bodyToMono(AccountResponse.class)))
                 .doOnSuccess(account -> log.debug("Account found: {}", account.getId()))
                 .doOnError(WebClientResponseException.class, ex -> {
                     log.error("Error calling Account Service: {} - {}", ex.getStatusCode(), ex.getMessage());
@@ -78,23 +136,89 @@ public class AccountClient {
     /**
      * Obtiene todas las cuentas de un cliente usando el endpoint correcto
      * GET /api/accounts/customer/{customerId}
+     * Se sirve desde la near cache; las llamadas concurrentes para el mismo cliente
+     * comparten una sola petición.
+     * Si el servicio falla se responde con la última respuesta válida, marcada como desactualizada;
+     * si el bulkhead rechaza la llamada el error se propaga
      */
     public Flux<AccountResponse> getAccountsByCustomer(String customerId) {
-        log.debug("Calling Account Service: GET /api/accounts/customer/{}", customerId);
-
-        return webClient.get()
-                .uri("/api/accounts/customer/{customerId}", customerId)
-                .retrieve()
-                .bodyToFlux(AccountResponse.class)
-                .timeout(Duration.ofSeconds(3))
-                .doOnNext(account -> log.debug("Account found: {}", account.getId()))
-                .doOnError(ex -> {
-                    log.error("Error calling Account Service for customer {}: {}", customerId, ex.getMessage());
-                })
-                .onErrorResume(error -> {
-                    log.warn("Returning empty list due to error: {}", error.getMessage());
-                    return Flux.empty();
+        return Deadline.limit(accountsByCustomer.get(customerId))
+                .onErrorResume(error -> !(error instanceof BulkheadFullException),
+                        error -> accountSnapshots.fallback(customerId, error))
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<List<AccountResponse>> fetchAccountsByCustomer(String customerId) {
+        return requestCoalescer.coalesce("account.getAccountsByCustomer", customerId, () -> {
+            log.debug("Calling Account Service: GET /api/accounts/customer/{}", customerId);
+
+            return bulkhead.apply(accountsByCustomerTimeout.apply(webClient.get()
+                            .uri("/api/accounts/customer/{customerId}", customerId)
+                            .retrieve()
+                            .bodyToFlux(AccountResponse.class)))
+                    .doOnNext(account -> log.debug("Account found: {}", account.getId()))
+                    .doOnError(ex -> {
+                        log.error("Error calling Account Service for customer {}: {}", customerId, ex.getMessage());
+                    })
+                    .collectList()
+                    .doOnNext(accounts -> accountSnapshots.save(customerId, accounts));
+        });
+    }
+
+    /**
+     * Obtiene varias cuentas por id en una sola llamada
+     * POST /api/accounts/batch con la lista de ids.
+     * Si el Account Service no expone la búsqueda masiva se consultan las cuentas una a una,
+     * en paralelo, con concurrencia acotada y tras el circuit breaker y el retry de accountService.
+     * Las cuentas que no se encuentran se omiten
+     */
+    public Flux<AccountResponse> getAccounts(Collection<String> accountIds) {
+        if (accountIds.isEmpty()) {
+            return Flux.empty();
+        }
+        if (bulkLookup.get() == BULK_UNSUPPORTED) {
+            return getAccountsOneByOne(accountIds);
+        }
+
+        log.debug("Calling Account Service: POST /api/accounts/batch with {} ids", accountIds.size());
+        return bulkhead.apply(accountsByIdTimeout.apply(webClient.post()
+                        .uri("/api/accounts/batch")
+                        .bodyValue(accountIds)
+                        .retrieve()
+                        .bodyToFlux(AccountResponse.class)))
+                .doOnComplete(() -> updateBulkLookup(BULK_SUPPORTED))
+                .onErrorResume(this::isBulkUnsupported, ex -> {
+                    updateBulkLookup(BULK_UNSUPPORTED);
+                    return getAccountsOneByOne(accountIds);
                 });
     }
 
+    private Flux<AccountResponse> getAccountsOneByOne(Collection<String> accountIds) {
+        return Flux.fromIterable(accountIds)
+                .flatMap(accountId -> fetchAccount(accountId)
+                        .transformDeferred(CircuitBreakerOperator.of(accountCircuitBreaker))
+                        .transformDeferred(RetryOperator.of(accountRetry))
+                        .onErrorResume(error -> {
+                            log.warn("Skipping account {} due to error: {}", accountId, error.getMessage());
+                            return Mono.empty();
+                        }), batch.getConcurrency());
+    }
+
+    private boolean isBulkUnsupported(Throwable error) {
+        if (!(error instanceof WebClientResponseException ex)) {
+            return false;
+        }
+        int status = ex.getStatusCode().value();
+        return status == 404 || status == 405 || status == 501;
+    }
+
+    private void updateBulkLookup(int state) {
+        int previous = bulkLookup.getAndSet(state);
+        if (previous != state && state == BULK_UNSUPPORTED) {
+            log.warn("Account Service has no bulk lookup, fetching accounts one by one");
+        } else if (previous != state) {
+            log.info("Account Service supports bulk lookups");
+        }
+    }
+
 }
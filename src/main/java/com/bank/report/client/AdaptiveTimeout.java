@@ -0,0 +1,111 @@
+package com.bank.report.client;
+
+import com.bank.report.config.DownstreamProperties;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Timeout of a downstream operation sized from its observed latency:
+ * the configured percentile times a multiplier, between the minimum and the
+ * operation's maximum, and never longer than the request deadline left.
+ * A call that times out records the timeout it was given, so a slow downstream
+ * raises the timeout instead of leaving only its fast answers in the window.
+ */
+public class AdaptiveTimeout {
+
+    private final Duration max;
+    private final DownstreamProperties.Timeout properties;
+    private final LatencyTracker latencyTracker;
+
+    public AdaptiveTimeout(Duration max, DownstreamProperties.Timeout properties) {
+        this.max = max;
+        this.properties = properties;
+        this.latencyTracker = new LatencyTracker(properties.getWindowSize(), properties.getMinSamples());
+    }
+
+    /**
+     * Applies the timeout to a single response call
+     */
+    public <T> Mono<T> apply(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            Duration operationTimeout = operationTimeout();
+            Duration timeout = capped(operationTimeout, context);
+            if (timeout.isZero()) {
+                return Mono.error(Deadline.exceeded());
+            }
+            long start = System.nanoTime();
+            return call.timeout(timeout)
+                    .doOnSuccess(value -> latencyTracker.record(System.nanoTime() - start))
+                    .doOnError(TimeoutException.class, ex -> recordTimeout(timeout, operationTimeout));
+        });
+    }
+
+    /**
+     * Applies the timeout to a streamed call, both to the first element and between elements
+     */
+    public <T> Flux<T> apply(Flux<T> call) {
+        return Flux.deferContextual(context -> {
+            Duration operationTimeout = operationTimeout();
+            Duration timeout = capped(operationTimeout, context);
+            if (timeout.isZero()) {
+                return Flux.error(Deadline.exceeded());
+            }
+            long start = System.nanoTime();
+            AtomicBoolean first = new AtomicBoolean(true);
+            return Deadline.limit(call.timeout(timeout)
+                    .doOnEach(signal -> {
+                        if (signal.isOnError()) {
+                            if (signal.getThrowable() instanceof TimeoutException && first.getAndSet(false)) {
+                                recordTimeout(timeout, operationTimeout);
+                            }
+                        } else if (first.getAndSet(false)) {
+                            latencyTracker.record(System.nanoTime() - start);
+                        }
+                    }));
+        });
+    }
+
+    /**
+     * Current timeout of the operation, capped by the deadline of the request
+     */
+    Duration timeout(ContextView context) {
+        return capped(operationTimeout(), context);
+    }
+
+    private Duration operationTimeout() {
+        Duration timeout = max;
+        if (properties.isAdaptive()) {
+            Duration observed = latencyTracker.percentile(properties.getPercentile(), max);
+            timeout = Duration.ofNanos((long) (observed.toNanos() * properties.getMultiplier()));
+            if (timeout.compareTo(properties.getMin()) < 0) {
+                timeout = properties.getMin();
+            }
+            if (timeout.compareTo(max) > 0) {
+                timeout = max;
+            }
+        }
+        return timeout;
+    }
+
+    private static Duration capped(Duration timeout, ContextView context) {
+        Duration left = Deadline.remaining(context).orElse(null);
+        if (left != null && left.compareTo(timeout) < 0) {
+            return left;
+        }
+        return timeout;
+    }
+
+    /**
+     * The call took at least its timeout. A timeout shortened by the request deadline
+     * says nothing about the downstream and is not recorded.
+     */
+    private void recordTimeout(Duration timeout, Duration operationTimeout) {
+        if (timeout.equals(operationTimeout)) {
+            latencyTracker.record(timeout.toNanos());
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.bank.report.client;
 
+import com.bank.report.cache.NearCache;
+import com.bank.report.cache.NearCacheRegistry;
+import com.bank.report.cache.SnapshotRegistry;
+import com.bank.report.cache.SnapshotStore;
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.config.DownstreamWebClientFactory;
+import com.bank.report.exception.BulkheadFullException;
 import com.bank.report.exception.CreditNotFoundException;
 import com.bank.report.exception.ServiceUnavailableException;
 import com.bank.report.model.dto.CreditResponse;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -20,10 +30,32 @@ import reactor.core.publisher.Mono;
 public class CreditClient {
 
   private final WebClient webClient;
+  private final RequestCoalescer requestCoalescer;
+  private final NearCache<List<CreditResponse>> creditsByCustomer;
+  private final SnapshotStore<List<CreditResponse>> creditSnapshots;
+  private final AdaptiveTimeout getCreditTimeout;
+  private final AdaptiveTimeout creditsByCustomerTimeout;
+  private final ReactiveBulkhead bulkhead;
 
   public CreditClient(
-      WebClient.Builder webClientBuilder, @Value("${credit.service.url}") String creditServiceUrl) {
-    this.webClient = webClientBuilder.baseUrl(creditServiceUrl).build();
+      DownstreamWebClientFactory webClientFactory,
+      RequestCoalescer requestCoalescer,
+      NearCacheRegistry nearCacheRegistry,
+      SnapshotRegistry snapshotRegistry,
+      DownstreamProperties downstreamProperties,
+      MeterRegistry meterRegistry,
+      @Value("${credit.service.url}") String creditServiceUrl) {
+    this.webClient = webClientFactory.create("credit", creditServiceUrl);
+    this.requestCoalescer = requestCoalescer;
+    this.creditsByCustomer = nearCacheRegistry.create("credits", this::fetchCreditsByCustomer);
+    this.creditSnapshots = snapshotRegistry.create("credits");
+
+    DownstreamProperties.Timeout timeout = downstreamProperties.client("credit").getTimeout();
+    this.getCreditTimeout = new AdaptiveTimeout(Duration.ofSeconds(2), timeout);
+    this.creditsByCustomerTimeout = new AdaptiveTimeout(Duration.ofSeconds(3), timeout);
+    this.bulkhead =
+        new ReactiveBulkhead(
+            "credit", downstreamProperties.client("credit").getBulkhead(), meterRegistry);
   }
 
   /**
@@ -38,15 +70,17 @@ public class CreditClient {
   public Mono<CreditResponse> getCredit(String creditId) {
     log.debug("Calling Credit Service to get credit with id: {}", creditId);
 
-    return webClient
-        .get()
-        .uri("/api/credits/{id}", creditId)
-        .retrieve()
-        .onStatus(
-            status -> status.value() == 404,
-            response -> Mono.error(new CreditNotFoundException(creditId)))
-        .bodyToMono(CreditResponse.class)
-        .timeout(Duration.ofSeconds(2))
+    return bulkhead
+        .apply(
+            getCreditTimeout.apply(
+                webClient
+                    .get()
+                    .uri("/api/credits/{id}", creditId)
+                    .retrieve()
+                    .onStatus(
+                        status -> status.value() == 404,
+                        response -> Mono.error(new CreditNotFoundException(creditId)))
+                    .bodyToMono(CreditResponse.class)))
         .doOnSuccess(credit -> log.debug("Credit found: {}", credit.getId()))
         .doOnError(
             ex -> {
@@ -75,24 +109,34 @@ public class CreditClient {
     /**
      * Obtiene todos los créditos de un cliente usando el endpoint correcto
      * GET /api/credits/customer/{customerId}
+     * Se sirve desde la near cache; las llamadas concurrentes para el mismo cliente
+     * comparten una sola petición.
+     * Si el servicio falla se responde con la última respuesta válida, marcada como desactualizada;
+     * si el bulkhead rechaza la llamada el error se propaga
      */
     public Flux<CreditResponse> getCreditsByCustomer(String customerId) {
-        log.debug("Calling Credit Service: GET /api/credits/customer/{}", customerId);
+        return Deadline.limit(creditsByCustomer.get(customerId))
+                .onErrorResume(error -> !(error instanceof BulkheadFullException),
+                        error -> creditSnapshots.fallback(customerId, error))
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<List<CreditResponse>> fetchCreditsByCustomer(String customerId) {
+        return requestCoalescer.coalesce("credit.getCreditsByCustomer", customerId, () -> {
+            log.debug("Calling Credit Service: GET /api/credits/customer/{}", customerId);
 
-        return webClient
-                .get()
-                .uri("/api/credits/customer/{customerId}", customerId)
-                .retrieve()
-                .bodyToFlux(CreditResponse.class)
-                .timeout(Duration.ofSeconds(3))
-                .doOnNext(credit -> log.debug("Credit found: {}", credit.getId()))
-                .doOnError(ex -> {
-                    log.error("Error calling Credit Service for customer {}: {}", customerId, ex.getMessage());
-                })
-                .onErrorResume(error -> {
-                    log.warn("Returning empty list due to error: {}", error.getMessage());
-                    return Flux.empty();
-                });
+            return bulkhead.apply(creditsByCustomerTimeout.apply(webClient
+                            .get()
+                            .uri("/api/credits/customer/{customerId}", customerId)
+                            .retrieve()
+                            .bodyToFlux(CreditResponse.class)))
+                    .doOnNext(credit -> log.debug("Credit found: {}", credit.getId()))
+                    .doOnError(ex -> {
+                        log.error("Error calling Credit Service for customer {}: {}", customerId, ex.getMessage());
+                    })
+                    .collectList()
+                    .doOnNext(credits -> creditSnapshots.save(customerId, credits));
+        });
     }
 
 }
@@ -0,0 +1,92 @@
+package com.bank.report.client;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * End-to-end deadline of a report request, carried in the Reactor context.
+ * The caller sets it with X-Request-Deadline (epoch millis) or X-Request-Timeout
+ * (millis from now); downstream calls never wait past it.
+ */
+@Slf4j
+public final class Deadline {
+
+    public static final String DEADLINE_HEADER = "X-Request-Deadline";
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private static final String CONTEXT_KEY = Deadline.class.getName();
+
+    private Deadline() {
+    }
+
+    /**
+     * Context holding the deadline of the incoming request, empty when the caller sent none
+     */
+    public static Context fromRequest(ServerHttpRequest request) {
+        Long deadline = null;
+        try {
+            String deadlineHeader = request.getHeaders().getFirst(DEADLINE_HEADER);
+            String timeoutHeader = request.getHeaders().getFirst(TIMEOUT_HEADER);
+            if (deadlineHeader != null) {
+                deadline = Long.parseLong(deadlineHeader.trim());
+            } else if (timeoutHeader != null) {
+                deadline = System.currentTimeMillis() + Long.parseLong(timeoutHeader.trim());
+            }
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring malformed deadline header: {}", ex.getMessage());
+        }
+        return deadline != null ? Context.of(CONTEXT_KEY, deadline) : Context.empty();
+    }
+
+    /**
+     * Time left before the deadline, if the request has one
+     */
+    public static Optional<Duration> remaining(ContextView context) {
+        return context.<Long>getOrEmpty(CONTEXT_KEY).map(Deadline::until);
+    }
+
+    /**
+     * Context for a call shared between requests: the subscriber's context without its
+     * deadline, which each caller applies on its own side with {@link #limit}
+     */
+    public static Context shared(ContextView context) {
+        return Context.of(context).delete(CONTEXT_KEY);
+    }
+
+    /**
+     * Fails the Mono with a TimeoutException once the deadline passes
+     */
+    public static <T> Mono<T> limit(Mono<T> mono) {
+        return Mono.deferContextual(context -> remaining(context)
+                .map(left -> left.isZero()
+                        ? Mono.<T>error(exceeded())
+                        : mono.timeout(left))
+                .orElse(mono));
+    }
+
+    /**
+     * Fails the Flux with a TimeoutException once the deadline passes
+     */
+    public static <T> Flux<T> limit(Flux<T> flux) {
+        return Flux.deferContextual(context -> context.<Long>getOrEmpty(CONTEXT_KEY)
+                .map(deadline -> until(deadline).isZero()
+                        ? Flux.<T>error(exceeded())
+                        : flux.timeout(Mono.delay(until(deadline)), item -> Mono.delay(until(deadline))))
+                .orElse(flux));
+    }
+
+    private static Duration until(long deadline) {
+        return Duration.ofMillis(Math.max(0, deadline - System.currentTimeMillis()));
+    }
+
+    static TimeoutException exceeded() {
+        return new TimeoutException("Request deadline exceeded");
+    }
+}
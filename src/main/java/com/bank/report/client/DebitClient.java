@@ -1,8 +1,13 @@
 package com.bank.report.client;
 
+import com.bank.report.cache.NearCache;
+import com.bank.report.cache.NearCacheRegistry;
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.config.DownstreamWebClientFactory;
 import com.bank.report.exception.CreditNotFoundException;
 import com.bank.report.model.dto.CreditResponse;
 import com.bank.report.model.dto.DebitResponse;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,24 +21,54 @@ import reactor.core.publisher.Mono;
 public class DebitClient {
 
     private final WebClient webClient;
+    private final RequestCoalescer requestCoalescer;
+    private final NearCache<DebitResponse> debitByCustomer;
+    private final AdaptiveTimeout debitByCustomerTimeout;
+    private final AdaptiveTimeout debitByIdTimeout;
+    private final ReactiveBulkhead bulkhead;
 
     public DebitClient(
-            WebClient.Builder webClientBuilder, @Value("${debit.service.url}") String creditServiceUrl) {
-        this.webClient = webClientBuilder.baseUrl(creditServiceUrl).build();
+            DownstreamWebClientFactory webClientFactory,
+            RequestCoalescer requestCoalescer,
+            NearCacheRegistry nearCacheRegistry,
+            DownstreamProperties downstreamProperties,
+            MeterRegistry meterRegistry,
+            @Value("${debit.service.url}") String debitServiceUrl) {
+        this.webClient = webClientFactory.create("debit", debitServiceUrl);
+        this.requestCoalescer = requestCoalescer;
+        this.debitByCustomer = nearCacheRegistry.create("debits", this::fetchDebitByCustomerId);
+
+        DownstreamProperties.Timeout timeout = downstreamProperties.client("debit").getTimeout();
+        this.debitByCustomerTimeout = new AdaptiveTimeout(Duration.ofSeconds(2), timeout);
+        this.debitByIdTimeout = new AdaptiveTimeout(Duration.ofSeconds(2), timeout);
+        this.bulkhead = new ReactiveBulkhead("debit",
+                downstreamProperties.client("debit").getBulkhead(), meterRegistry);
     }
 
+    /**
+     * Se sirve desde la near cache; las llamadas concurrentes para el mismo cliente
+     * comparten una sola petición
+     */
     public Mono<DebitResponse> getDebitByCustomerId(String customerId) {
+        return Deadline.limit(debitByCustomer.get(customerId));
+    }
+
+    private Mono<DebitResponse> fetchDebitByCustomerId(String customerId) {
+        return requestCoalescer.coalesce("debit.getDebitByCustomerId", customerId,
+                () -> requestDebitByCustomerId(customerId));
+    }
+
+    private Mono<DebitResponse> requestDebitByCustomerId(String customerId) {
         log.debug("Calling Debit Service to get debit card with id: {}", customerId);
 
-        return webClient
-                .get()
-                .uri("/api/debit-cards/customer/{customerId}", customerId)
-                .retrieve()
-                .onStatus(
-                        status -> status.value() == 404,
-                        response -> Mono.error(new CreditNotFoundException(customerId)))
-                .bodyToMono(DebitResponse.class)
-                .timeout(Duration.ofSeconds(2))
+        return bulkhead.apply(debitByCustomerTimeout.apply(webClient
+                        .get()
+                        .uri("/api/debit-cards/customer/{customerId}", customerId)
+                        .retrieve()
+                        .onStatus(
+                                status -> status.value() == 404,
+                                response -> Mono.error(new CreditNotFoundException(customerId)))
+                        .bodyToMono(DebitResponse.class)))
                 .doOnSuccess(credit -> log.debug("Debit found: {}", credit.getId()))
                 .doOnError(
                         ex -> {
@@ -45,15 +80,14 @@ public class DebitClient {
     public Mono<DebitResponse> getDebitById(String id) {
         log.debug("Calling Debit Service to get debit card with id: {}", id);
 
-        return webClient
-                .get()
-                .uri("/api/debit-cards/{id}", id)
-                .retrieve()
-                .onStatus(
-                        status -> status.value() == 404,
-                        response -> Mono.error(new CreditNotFoundException(id)))
-                .bodyToMono(DebitResponse.class)
-                .timeout(Duration.ofSeconds(2))
+        return bulkhead.apply(debitByIdTimeout.apply(webClient
+                        .get()
+                        .uri("/api/debit-cards/{id}", id)
+                        .retrieve()
+                        .onStatus(
+                                status -> status.value() == 404,
+                                response -> Mono.error(new CreditNotFoundException(id)))
+                        .bodyToMono(DebitResponse.class)))
                 .doOnSuccess(credit -> log.debug("Debit found: {}", credit.getId()))
                 .doOnError(
                         ex -> {
@@ -0,0 +1,53 @@
+package com.bank.report.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Rolling window of the latest call latencies of a downstream operation,
+ * used to derive percentile-based delays and timeouts.
+ */
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples;
+    private final int minSamples;
+    private int next;
+    private int count;
+    private int recordedSinceSort;
+    private long[] sorted = new long[0];
+
+    public LatencyTracker(int windowSize, int minSamples) {
+        this.samples = new long[windowSize];
+        this.minSamples = minSamples;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        recordedSinceSort++;
+    }
+
+    /**
+     * Latency percentile of the window
+     * @param percentile the percentile, between 0 and 1
+     * @param fallback returned until the window holds enough samples
+     * @return the percentile latency
+     */
+    public synchronized Duration percentile(double percentile, Duration fallback) {
+        if (count < minSamples) {
+            return fallback;
+        }
+        if (recordedSinceSort >= RECOMPUTE_EVERY || sorted.length != count) {
+            sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            recordedSinceSort = 0;
+        }
+        int index = (int) Math.min(count - 1, Math.ceil(percentile * count) - 1);
+        return Duration.ofNanos(sorted[Math.max(0, index)]);
+    }
+}
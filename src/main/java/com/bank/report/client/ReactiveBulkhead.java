@@ -0,0 +1,205 @@
+package com.bank.report.client;
+
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Limits the calls in flight to a downstream service, so a slow service only
+ * holds its own slots and never the capacity of the other reports.
+ * Calls beyond the limit wait, without blocking a thread, up to the configured
+ * time and queue length; past either they fail at once with
+ * {@link BulkheadFullException}.
+ */
+@Slf4j
+public class ReactiveBulkhead {
+
+    private static final Object PERMIT = new Object();
+
+    private final String name;
+    private final DownstreamProperties.Bulkhead properties;
+    private final AtomicInteger permits;
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Counter rejectedFull;
+    private final Counter rejectedTimeout;
+
+    public ReactiveBulkhead(String name, DownstreamProperties.Bulkhead properties, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.properties = properties;
+        this.permits = new AtomicInteger(properties.getMaxConcurrentCalls());
+
+        Gauge.builder("report.bulkhead.available.permits", permits, AtomicInteger::get)
+                .description("Free call slots of the downstream bulkhead")
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("report.bulkhead.waiting", waitingCount, AtomicInteger::get)
+                .description("Calls waiting for a slot of the downstream bulkhead")
+                .tag("client", name)
+                .register(meterRegistry);
+        this.rejectedFull = Counter.builder("report.bulkhead.rejected")
+                .description("Calls rejected by the downstream bulkhead")
+                .tag("client", name)
+                .tag("reason", "full")
+                .register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("report.bulkhead.rejected")
+                .description("Calls rejected by the downstream bulkhead")
+                .tag("client", name)
+                .tag("reason", "wait-timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call once a slot is free, releasing it when the call terminates or is cancelled
+     */
+    public <T> Mono<T> apply(Mono<T> call) {
+        if (!properties.isEnabled()) {
+            return call;
+        }
+        return Mono.usingWhen(acquire(), permit -> call,
+                permit -> release(), (permit, error) -> release(), permit -> release());
+    }
+
+    /**
+     * Runs the streamed call once a slot is free, holding it until the stream terminates or is cancelled
+     */
+    public <T> Flux<T> apply(Flux<T> call) {
+        if (!properties.isEnabled()) {
+            return call;
+        }
+        return Flux.usingWhen(acquire(), permit -> call,
+                permit -> release(), (permit, error) -> release(), permit -> release());
+    }
+
+    private Mono<Object> acquire() {
+        return Mono.defer(() -> {
+            if (tryAcquire()) {
+                return Mono.just(PERMIT);
+            }
+            if (properties.getMaxWait().isZero() || !tryEnqueue()) {
+                rejectedFull.increment();
+                return Mono.error(rejected());
+            }
+            return Mono.<Object>create(this::await);
+        });
+    }
+
+    /**
+     * Queues the call until a slot is granted or the maximum wait expires. The
+     * grant, the expiry and a cancellation race on the same flag, so exactly one
+     * of them settles the waiter and a granted slot is never lost.
+     */
+    private void await(MonoSink<Object> sink) {
+        Waiter waiter = new Waiter(sink);
+        sink.onCancel(() -> {
+            waiter.cancelExpiry();
+            if (waiter.granted.compareAndSet(false, true)) {
+                // Se canceló antes de recibir el permiso
+                waiters.remove(waiter);
+                waitingCount.decrementAndGet();
+            } else {
+                // El permiso llegó junto con la cancelación: se devuelve
+                releasePermit();
+            }
+        });
+        waiters.offer(waiter);
+        waiter.expiry = Schedulers.parallel().schedule(() -> expire(waiter),
+                properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        drain();
+    }
+
+    private void expire(Waiter waiter) {
+        if (waiter.granted.compareAndSet(false, true)) {
+            waiters.remove(waiter);
+            waitingCount.decrementAndGet();
+            rejectedTimeout.increment();
+            waiter.sink.error(rejected());
+        }
+    }
+
+    private boolean tryAcquire() {
+        int available;
+        do {
+            available = permits.get();
+            if (available <= 0) {
+                return false;
+            }
+        } while (!permits.compareAndSet(available, available - 1));
+        return true;
+    }
+
+    private boolean tryEnqueue() {
+        int waiting;
+        do {
+            waiting = waitingCount.get();
+            if (waiting >= properties.getMaxWaitingCalls()) {
+                return false;
+            }
+        } while (!waitingCount.compareAndSet(waiting, waiting + 1));
+        return true;
+    }
+
+    private Mono<Void> release() {
+        return Mono.fromRunnable(this::releasePermit);
+    }
+
+    private void releasePermit() {
+        permits.incrementAndGet();
+        drain();
+    }
+
+    /**
+     * Hands free slots to waiting calls. Both releases and new waiters drain,
+     * so a slot freed while a call was being queued is never missed.
+     */
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter != null && waiter.granted.compareAndSet(false, true)) {
+                waiter.cancelExpiry();
+                waitingCount.decrementAndGet();
+                waiter.sink.success(PERMIT);
+            } else {
+                permits.incrementAndGet();
+            }
+        }
+    }
+
+    private BulkheadFullException rejected() {
+        log.debug("Bulkhead of {} service is full, rejecting call", name);
+        return new BulkheadFullException(
+                "Too many concurrent calls to " + name + " service. Please try again later.");
+    }
+
+    private static final class Waiter {
+
+        private final MonoSink<Object> sink;
+        private final AtomicBoolean granted = new AtomicBoolean();
+        private volatile Disposable expiry;
+
+        private Waiter(MonoSink<Object> sink) {
+            this.sink = sink;
+        }
+
+        private void cancelExpiry() {
+            // Si aún no se programó, la expiración perderá la carrera por granted
+            Disposable scheduled = expiry;
+            if (scheduled != null) {
+                scheduled.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.bank.report.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Single-flight layer for downstream lookups.
+ * Concurrent calls with the same operation and arguments share one in-flight request.
+ * The shared request is subscribed on its own, so a cancelled caller does not cancel it
+ * for the others. It runs without the first caller's deadline; every caller waits only
+ * up to its own. Saved calls are counted in report.coalescing.saved.
+ */
+@Slf4j
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, Sinks.One<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> savedCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("report.coalescing.in.flight", inFlight, Map::size)
+                .description("Downstream calls currently shared by the coalescing layer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Shares the result of a Mono call between concurrent subscribers
+     * @param operation the client method name
+     * @param key the call arguments
+     * @param call the downstream call
+     * @return Mono completed with the shared result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String operation, String key, Supplier<Mono<T>> call) {
+        String flightKey = operation + ":" + key;
+
+        return Deadline.limit(Mono.deferContextual(context -> {
+            Sinks.One<Object> sink = Sinks.one();
+            Sinks.One<Object> existing = inFlight.putIfAbsent(flightKey, sink);
+            if (existing != null) {
+                log.debug("Joining in-flight call {}", flightKey);
+                savedCounter(operation).increment();
+                return (Mono<T>) existing.asMono();
+            }
+
+            call.get()
+                    .contextWrite(Deadline.shared(context))
+                    .doFinally(signal -> inFlight.remove(flightKey, sink))
+                    .subscribe(
+                            sink::tryEmitValue,
+                            sink::tryEmitError,
+                            sink::tryEmitEmpty);
+            return (Mono<T>) sink.asMono();
+        }));
+    }
+
+    private Counter savedCounter(String operation) {
+        return savedCounters.computeIfAbsent(operation, op -> Counter.builder("report.coalescing.saved")
+                .description("Downstream calls avoided by joining an in-flight call")
+                .tag("operation", op)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,137 @@
+package com.bank.report.client;
+
+import com.bank.report.config.DownstreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends a second (hedge) request when the first one has not answered within the
+ * configured latency percentile, keeps whichever answers first and cancels the other.
+ * Through the load balanced client the hedge lands on the next instance.
+ * Each request earns a fraction of a hedge token, so hedges never exceed the
+ * configured share of the traffic.
+ */
+@Slf4j
+public class RequestHedger {
+
+    private static final long TOKEN = 1000;
+    private static final int PRIMARY = 1;
+    private static final int HEDGE = 2;
+
+    private final String name;
+    private final DownstreamProperties.Hedging properties;
+    private final LatencyTracker latencyTracker;
+    private final AtomicLong budget = new AtomicLong();
+    private final long budgetDeposit;
+    private final long budgetCap;
+    private final Counter hedgesFired;
+    private final Counter hedgesWon;
+
+    public RequestHedger(String name, DownstreamProperties.Hedging properties, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.properties = properties;
+        this.latencyTracker = new LatencyTracker(properties.getWindowSize(), properties.getMinSamples());
+        this.budgetDeposit = Math.round(properties.getBudgetRatio() * TOKEN);
+        this.budgetCap = properties.getMaxBurst() * TOKEN;
+        this.hedgesFired = Counter.builder("report.hedge.fired")
+                .description("Hedge requests sent after the hedging delay")
+                .tag("client", name)
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("report.hedge.won")
+                .description("Hedge requests that answered before the original request")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call, hedging it when hedging is enabled
+     * @param call the downstream call, invoked once per attempt
+     * @return Flux of the attempt that answered first
+     */
+    public <T> Flux<T> hedge(Supplier<Flux<T>> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+
+        return Flux.defer(() -> {
+            deposit();
+            Duration delay = hedgeDelay();
+            AtomicInteger winner = new AtomicInteger();
+
+            Flux<T> primary = timed(call.get())
+                    .doOnEach(signal -> winner.compareAndSet(0, PRIMARY));
+
+            Flux<T> hedge = Mono.delay(delay)
+                    .flatMapMany(tick -> {
+                        if (!tryAcquire()) {
+                            return Flux.<T>never();
+                        }
+                        log.debug("No answer from {} service after {}, sending hedge request", name, delay);
+                        hedgesFired.increment();
+                        // Solo la latencia del primario alimenta el percentil: los hedges que ganan
+                        // son por definición los rápidos y lo sesgarían a la baja
+                        return call.get()
+                                .doOnEach(signal -> {
+                                    if (winner.compareAndSet(0, HEDGE) && (signal.isOnNext() || signal.isOnComplete())) {
+                                        hedgesWon.increment();
+                                    }
+                                });
+                    });
+
+            return Flux.firstWithSignal(primary, hedge);
+        });
+    }
+
+    /**
+     * Hedging delay for the next request
+     */
+    Duration hedgeDelay() {
+        Duration delay = latencyTracker.percentile(properties.getPercentile(), properties.getMaxDelay());
+        if (delay.compareTo(properties.getMinDelay()) < 0) {
+            return properties.getMinDelay();
+        }
+        return delay.compareTo(properties.getMaxDelay()) > 0 ? properties.getMaxDelay() : delay;
+    }
+
+    /**
+     * Records the time of the primary attempt to its first signal, which is what the two
+     * attempts race on. A primary cancelled before answering (the hedge won, or the caller
+     * gave up) records the time it had been waiting, a lower bound of its latency, so slow
+     * primaries still push the hedging delay up.
+     */
+    private <T> Flux<T> timed(Flux<T> call) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicInteger recorded = new AtomicInteger();
+            Runnable record = () -> {
+                if (recorded.compareAndSet(0, 1)) {
+                    latencyTracker.record(System.nanoTime() - start);
+                }
+            };
+            return call.doOnEach(signal -> record.run())
+                    .doOnCancel(record);
+        });
+    }
+
+    private void deposit() {
+        budget.updateAndGet(tokens -> Math.min(budgetCap, tokens + budgetDeposit));
+    }
+
+    private boolean tryAcquire() {
+        long tokens;
+        do {
+            tokens = budget.get();
+            if (tokens < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(tokens, tokens - TOKEN));
+        return true;
+    }
+}
@@ -1,19 +1,35 @@
 package com.bank.report.client;
 
+import com.bank.report.cache.SnapshotRegistry;
+import com.bank.report.cache.SnapshotStore;
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.config.DownstreamWebClientFactory;
+import com.bank.report.exception.BulkheadFullException;
+import com.bank.report.model.dto.TransactionPageResponse;
 import com.bank.report.model.dto.TransactionResponse;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.security.auth.login.AccountNotFoundException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Client for communicating with Transaction Service
@@ -22,23 +38,63 @@ import java.time.Duration;
 @Component
 public class TransactionClient {
 
+    private static final int PUSHDOWN_UNKNOWN = -1;
+    private static final int PUSHDOWN_IGNORED = 0;
+
     private final WebClient webClient;
+    private final RequestHedger requestHedger;
+    private final DownstreamProperties.Codec codec;
+    private final DownstreamProperties.Pagination pagination;
+    private final AtomicInteger filterPushdown = new AtomicInteger(PUSHDOWN_UNKNOWN);
+    private final Counter filteredLocally;
+    private final AdaptiveTimeout findByCustomerTimeout;
+    private final AdaptiveTimeout transactionsByCustomerTimeout;
+    private final ReactiveBulkhead bulkhead;
+    private final SnapshotStore<List<TransactionResponse>> transactionSnapshots;
 
-    public TransactionClient(@LoadBalanced WebClient.Builder webClientBuilder,
+    public TransactionClient(DownstreamWebClientFactory webClientFactory,
+                             DownstreamProperties downstreamProperties,
+                             SnapshotRegistry snapshotRegistry,
+                             MeterRegistry meterRegistry,
                              @Value("${transaction.service.url}") String transactionServiceUrl) {
-        this.webClient = webClientBuilder
-                .baseUrl(transactionServiceUrl)
-                .build();
+        this.webClient = webClientFactory.create("transaction", transactionServiceUrl);
+        this.requestHedger = new RequestHedger("transaction",
+                downstreamProperties.client("transaction").getHedging(), meterRegistry);
+        this.codec = downstreamProperties.client("transaction").getCodec();
+        if (codec.getFormat() == DownstreamProperties.WireFormat.CBOR) {
+            // El historial se decodifica en streaming; en CBOR tendría que caber entero en max-in-memory-size
+            throw new IllegalStateException("downstream.clients.transaction.codec.format=CBOR is not supported: "
+                    + "transaction histories are streamed and CBOR responses are buffered whole, use SMILE or JSON");
+        }
+        this.pagination = downstreamProperties.client("transaction").getPagination();
+
+        DownstreamProperties.Timeout timeout = downstreamProperties.client("transaction").getTimeout();
+        this.findByCustomerTimeout = new AdaptiveTimeout(Duration.ofSeconds(10), timeout);
+        this.transactionsByCustomerTimeout = new AdaptiveTimeout(Duration.ofSeconds(5), timeout);
+        this.bulkhead = new ReactiveBulkhead("transaction",
+                downstreamProperties.client("transaction").getBulkhead(), meterRegistry);
+        this.transactionSnapshots = snapshotRegistry.create("transactions");
+
+        Gauge.builder("report.transaction.filter.pushdown", filterPushdown, AtomicInteger::get)
+                .description("Whether the Transaction Service was seen ignoring the filter parameters (0) or not yet (-1)")
+                .register(meterRegistry);
+        this.filteredLocally = Counter.builder("report.transaction.filter.local.dropped")
+                .description("Transactions received from the Transaction Service that the local filter dropped")
+                .register(meterRegistry);
     }
 
     public Flux<TransactionResponse> findByCustomerId(String customerId) {
-        log.info("Calling transaction service for customer: {}", customerId);
+        return findByCustomerId(customerId, TransactionFilter.none());
+    }
 
-        return webClient
-                .get()
-                .uri("/api/transactions/customer/{customerId}", customerId)
-                .retrieve()
-                .bodyToFlux(TransactionResponse.class)
+    /**
+     * Obtiene las transacciones de un cliente filtradas en el Transaction Service
+     * GET /api/transactions/customer/{customerId}?period=&from=&to=&status=
+     */
+    public Flux<TransactionResponse> findByCustomerId(String customerId, TransactionFilter filter) {
+        log.info("Calling transaction service for customer: {} with filter: {}", customerId, filter);
+
+        return bulkhead.apply(findByCustomerTimeout.apply(streamTransactions(customerId, filter)))
                 .doOnError(error -> log.error("Error fetching transactions for customer {}: {}",
                         customerId, error.getMessage()))
                 .doOnComplete(() -> log.info("Completed fetching transactions for customer {}", customerId));
@@ -47,24 +103,145 @@ public class TransactionClient {
     /**
      * Obtiene todas las transacciones de un cliente
      * GET /api/transactions/customer/{customerId}
+     * Si la respuesta tarda más que el percentil configurado se envía una petición de cobertura (hedge)
      */
     public Flux<TransactionResponse> getTransactionsByCustomer(String customerId) {
-        log.debug("Calling Transaction Service: GET /api/transactions/customer/{}", customerId);
+        return getTransactionsByCustomer(customerId, TransactionFilter.none());
+    }
 
-        return webClient
+    /**
+     * Obtiene las transacciones de un cliente filtradas en el Transaction Service.
+     * Si el servicio falla antes de enviar datos se responde con la última respuesta válida,
+     * marcada como desactualizada
+     */
+    public Flux<TransactionResponse> getTransactionsByCustomer(String customerId, TransactionFilter filter) {
+        log.debug("Calling Transaction Service: GET /api/transactions/customer/{} with filter: {}", customerId, filter);
+
+        String snapshotKey = customerId + ":" + filter;
+        return Flux.defer(() -> {
+            List<TransactionResponse> received = new ArrayList<>();
+            AtomicBoolean emitted = new AtomicBoolean();
+
+            // Un solo cupo del bulkhead por llamada lógica, aunque se envíe el hedge
+            return bulkhead.apply(transactionsByCustomerTimeout.apply(
+                            requestHedger.hedge(() -> streamTransactions(customerId, filter))))
+                    .doOnNext(transaction -> {
+                        log.debug("Transaction found: {}", transaction.getId());
+                        emitted.set(true);
+                        if (received.size() <= transactionSnapshots.getMaxElements()) {
+                            received.add(transaction);
+                        }
+                    })
+                    .doOnComplete(() -> transactionSnapshots.save(snapshotKey, received))
+                    .doOnError(ex -> {
+                        log.error("Error calling Transaction Service for customer {}: {}", customerId, ex.getMessage());
+                    })
+                    .onErrorResume(error -> !(error instanceof BulkheadFullException), error -> {
+                        if (emitted.get()) {
+                            // Ya se enviaron transacciones: completar la respuesta con el snapshot la duplicaría
+                            log.warn("Returning partial list due to error: {}", error.getMessage());
+                            return Flux.empty();
+                        }
+                        return transactionSnapshots.fallback(snapshotKey, error)
+                                .flatMapIterable(Function.identity());
+                    });
+        });
+    }
+
+    /**
+     * Decodifica el historial elemento a elemento, sin acumularlo en memoria.
+     * En modo streaming se negocia application/x-ndjson; si el servicio solo responde
+     * un arreglo JSON, el decoder también lo emite elemento a elemento.
+     */
+    private Flux<TransactionResponse> streamTransactions(String customerId, TransactionFilter filter) {
+        if (pagination.isEnabled()) {
+            return streamPages(customerId, filter);
+        }
+
+        WebClient.RequestHeadersSpec<?> request = webClient
                 .get()
-                .uri("/api/transactions/customer/{customerId}", customerId)
+                .uri(uriBuilder -> withFilter(uriBuilder.path("/api/transactions/customer/{customerId}"), filter)
+                        .build(customerId));
+        if (codec.isStreaming()) {
+            request = request.accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON);
+        }
+
+        Flux<TransactionResponse> transactions = request
                 .retrieve()
                 .bodyToFlux(TransactionResponse.class)
-                .timeout(Duration.ofSeconds(5))
-                .doOnNext(transaction -> log.debug("Transaction found: {}", transaction.getId()))
-                .doOnError(ex -> {
-                    log.error("Error calling Transaction Service for customer {}: {}", customerId, ex.getMessage());
-                })
-                .onErrorResume(error -> {
-                    log.warn("Returning empty list due to error: {}", error.getMessage());
-                    return Flux.empty();
-                });
+                .limitRate(codec.getPrefetch());
+        return filter.isEmpty() ? transactions : filterLocally(transactions, filter);
+    }
+
+    /**
+     * Recorre el historial por páginas (cursor) y pide la página N+1 mientras se consume la página N.
+     * GET /api/transactions/customer/{customerId}?size=&cursor=
+     */
+    private Flux<TransactionResponse> streamPages(String customerId, TransactionFilter filter) {
+        Flux<TransactionResponse> transactions = fetchPage(customerId, filter, null)
+                .expand(page -> page.getNextCursor() == null
+                        ? Mono.empty()
+                        : fetchPage(customerId, filter, page.getNextCursor()))
+                .concatMapIterable(page -> page.getContent() != null ? page.getContent() : List.of(),
+                        pagination.getPrefetchPages() + 1);
+        return filter.isEmpty() ? transactions : filterLocally(transactions, filter);
+    }
+
+    private Mono<TransactionPageResponse> fetchPage(String customerId, TransactionFilter filter, String cursor) {
+        log.debug("Fetching transaction page for customer {} - cursor: {}", customerId, cursor);
+
+        return webClient
+                .get()
+                .uri(uriBuilder -> withFilter(uriBuilder.path("/api/transactions/customer/{customerId}"), filter)
+                        .queryParam("size", pagination.getPageSize())
+                        .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                        .build(customerId))
+                .retrieve()
+                .bodyToMono(TransactionPageResponse.class);
+    }
+
+    private UriBuilder withFilter(UriBuilder uriBuilder, TransactionFilter filter) {
+        return uriBuilder
+                .queryParamIfPresent("period", Optional.ofNullable(filter.getPeriod()))
+                .queryParamIfPresent("from", Optional.ofNullable(filter.getFrom()))
+                .queryParamIfPresent("to", Optional.ofNullable(filter.getTo()))
+                .queryParamIfPresent("status", Optional.ofNullable(filter.getStatus()));
+    }
+
+    /**
+     * Red de seguridad para versiones del Transaction Service que ignoran los parámetros de filtro.
+     * Una respuesta con transacciones fuera del filtro marca que el servicio lo ignora
+     * (report.transaction.filter.pushdown). Una respuesta sin descartes no prueba que lo aplique
+     * (puede estar vacía o coincidir entera con el filtro), así que no cambia el estado.
+     */
+    private Flux<TransactionResponse> filterLocally(Flux<TransactionResponse> transactions, TransactionFilter filter) {
+        return Flux.defer(() -> {
+            AtomicBoolean ignored = new AtomicBoolean();
+            return transactions
+                    .filter(transaction -> {
+                        if (filter.matches(transaction)) {
+                            return true;
+                        }
+                        if (transaction.getCreatedAt() == null) {
+                            // Sin createdAt no se puede saber si el servicio aplicó el filtro
+                            return false;
+                        }
+                        filteredLocally.increment();
+                        ignored.set(true);
+                        return false;
+                    })
+                    .doOnComplete(() -> {
+                        if (ignored.get()) {
+                            markFilterIgnored();
+                        }
+                    });
+        });
+    }
+
+    private void markFilterIgnored() {
+        if (filterPushdown.getAndSet(PUSHDOWN_IGNORED) != PUSHDOWN_IGNORED) {
+            log.warn("Transaction Service ignores filter parameters, filtering transactions locally");
+        }
     }
 
 }
@@ -0,0 +1,72 @@
+package com.bank.report.client;
+
+import com.bank.report.model.dto.TransactionResponse;
+import com.bank.report.model.enums.TransactionStatus;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Filter sent to the Transaction Service as query parameters
+ * (period=yyyyMM, from/to as ISO date-times, status).
+ * Every field is optional; {@link #matches} applies the same filter locally.
+ */
+@Value
+@Builder
+public class TransactionFilter {
+
+    private static final TransactionFilter NONE = TransactionFilter.builder().build();
+
+    /** Period in format yyyyMM. */
+    String period;
+
+    /** Inclusive lower bound of createdAt. */
+    LocalDateTime from;
+
+    /** Exclusive upper bound of createdAt. */
+    LocalDateTime to;
+
+    TransactionStatus status;
+
+    public static TransactionFilter none() {
+        return NONE;
+    }
+
+    public static TransactionFilter forPeriod(String period) {
+        return TransactionFilter.builder().period(period).build();
+    }
+
+    public static TransactionFilter withStatus(TransactionStatus status) {
+        return TransactionFilter.builder().status(status).build();
+    }
+
+    public boolean isEmpty() {
+        return period == null && from == null && to == null && status == null;
+    }
+
+    /**
+     * Whether a transaction passes the filter. Like the report filters, a transaction
+     * without createdAt is matched by its period field, and never passes a from/to range
+     */
+    public boolean matches(TransactionResponse transaction) {
+        if (status != null && transaction.getStatus() != status) {
+            return false;
+        }
+        if (period == null && from == null && to == null) {
+            return true;
+        }
+
+        LocalDateTime createdAt = transaction.getCreatedAt();
+        if (createdAt == null) {
+            return from == null && to == null && period.equals(transaction.getPeriod());
+        }
+        if (period != null && (createdAt.getYear() != Integer.parseInt(period, 0, 4, 10)
+                || createdAt.getMonthValue() != Integer.parseInt(period, 4, 6, 10))) {
+            return false;
+        }
+        if (from != null && createdAt.isBefore(from)) {
+            return false;
+        }
+        return to == null || createdAt.isBefore(to);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bank.report.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+/**
+ * CBOR decoder that also serves list responses read with bodyToFlux.
+ * Jackson has no non-blocking CBOR parser, so the whole array is buffered
+ * (up to maxInMemorySize, which then bounds the whole response) and its elements
+ * emitted once decoded. Not for streamed histories: the transaction client rejects CBOR.
+ */
+class BufferedCborDecoder extends Jackson2CborDecoder {
+
+    BufferedCborDecoder(ObjectMapper mapper) {
+        super(mapper);
+    }
+
+    @Override
+    public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType,
+                               MimeType mimeType, Map<String, Object> hints) {
+        ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+        return decodeToMono(input, listType, mimeType, hints)
+                .flatMapIterable(list -> (List<?>) list);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bank.report.config;
+
+import com.bank.report.client.Deadline;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Puts the deadline sent by the caller in the Reactor context of the request,
+ * where the downstream clients read it.
+ */
+@Component
+public class DeadlineWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return chain.filter(exchange)
+                .contextWrite(Deadline.fromRequest(exchange.getRequest()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.report.config;
+
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.time.LocalDateTime;
+
+/**
+ * ObjectMappers used to decode downstream responses (JSON, Smile and CBOR), shared by
+ * every WebClient so deserializers are built once per DTO.
+ * Properties are set through generated lambdas (Blackbird) instead of reflection,
+ * numbers use the fast parsers and LocalDateTime is read without a formatter.
+ * They are deliberately not beans: the application ObjectMapper stays the one Spring Boot configures.
+ */
+final class DownstreamObjectMapper {
+
+    private static final ObjectMapper JSON = configure(JsonMapper.builder());
+    private static final ObjectMapper SMILE = configure(SmileMapper.builder());
+    private static final ObjectMapper CBOR = configure(CBORMapper.builder());
+
+    private DownstreamObjectMapper() {
+    }
+
+    static ObjectMapper get() {
+        return JSON;
+    }
+
+    static ObjectMapper smile() {
+        return SMILE;
+    }
+
+    static ObjectMapper cbor() {
+        return CBOR;
+    }
+
+    private static <M extends ObjectMapper, B extends MapperBuilder<M, B>> M configure(B builder) {
+        return builder
+                .addModule(new BlackbirdModule())
+                .addModule(new JavaTimeModule()
+                        .addDeserializer(LocalDateTime.class, FastLocalDateTimeDeserializer.INSTANCE))
+                .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+                .enable(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
+                .disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
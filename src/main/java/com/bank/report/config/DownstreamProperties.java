@@ -0,0 +1,287 @@
+package com.bank.report.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Tuning of the HTTP clients used to call downstream services.
+ * Each entry of {@code downstream.clients} is keyed by client name
+ * (account, credit, debit, transaction).
+ */
+@Data
+@ConfigurationProperties(prefix = "downstream")
+public class DownstreamProperties {
+
+    private Map<String, Client> clients = new HashMap<>();
+
+    private LoadBalancer loadBalancer = new LoadBalancer();
+
+    private WarmUp warmUp = new WarmUp();
+
+    /**
+     * Returns the settings of a downstream, or the defaults when none are configured.
+     */
+    public Client client(String name) {
+        return clients.getOrDefault(name, new Client());
+    }
+
+    /**
+     * Settings of a single downstream client.
+     */
+    @Data
+    public static class Client {
+
+        private Pool pool = new Pool();
+
+        private Http2 http2 = new Http2();
+
+        private Hedging hedging = new Hedging();
+
+        private Codec codec = new Codec();
+
+        private Pagination pagination = new Pagination();
+
+        private Timeout timeout = new Timeout();
+
+        private Bulkhead bulkhead = new Bulkhead();
+
+        private Batch batch = new Batch();
+    }
+
+    /**
+     * Warm-up run at startup, before the service reports ready.
+     */
+    @Data
+    public static class WarmUp {
+
+        private boolean enabled = true;
+
+        /** Connections opened to each downstream. */
+        private int connections = 4;
+
+        /** Synthetic decode rounds run to warm up the JIT. */
+        private int iterations = 500;
+
+        /** Customer whose reports are computed once through every service; skipped when unset. */
+        private String customerId;
+
+        /** Maximum time the warm-up may take; the service reports ready after it regardless. */
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Choice of the downstream instance each request is sent to.
+     */
+    @Data
+    public static class LoadBalancer {
+
+        /** Whether instances are chosen by latency and load instead of round robin. */
+        private boolean latencyAware = true;
+
+        /** Weight of the latest latency in the moving average, between 0 and 1. */
+        private double ewmaAlpha = 0.2;
+
+        /** Latency recorded for a failed request, so failing instances are avoided. */
+        private Duration failurePenalty = Duration.ofSeconds(1);
+
+        /** Latency assumed for instances without samples while no other instance has any either. */
+        private Duration initialLatency = Duration.ofMillis(100);
+    }
+
+    /**
+     * Connection pool of a single downstream client.
+     */
+    @Data
+    public static class Pool {
+
+        /** Maximum number of open connections. */
+        private int maxConnections = 50;
+
+        /** Maximum number of requests waiting for a connection. */
+        private int pendingAcquireMaxCount = 200;
+
+        /** Maximum time a request waits for a connection. */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+        /** Idle time after which a connection is closed. */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        /** Maximum lifetime of a connection. */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        /** Interval of the background eviction task. */
+        private Duration evictInBackground = Duration.ofSeconds(30);
+
+        /** Order in which idle connections are leased. */
+        private LeasingStrategy leasingStrategy = LeasingStrategy.FIFO;
+    }
+
+    /**
+     * Opt-in HTTP/2 cleartext (prior knowledge) of a single downstream client.
+     */
+    @Data
+    public static class Http2 {
+
+        /** Whether requests are sent over h2c instead of HTTP/1.1. */
+        private boolean enabled = false;
+
+        /** Time requests stay on HTTP/1.1 after an h2c connection is rejected. */
+        private Duration fallbackDuration = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Request hedging of a single downstream client.
+     */
+    @Data
+    public static class Hedging {
+
+        /** Whether a second request is sent when the first one is slow. */
+        private boolean enabled = false;
+
+        /** Latency percentile after which the hedge request is sent. */
+        private double percentile = 0.95;
+
+        /** Lower bound of the hedging delay. */
+        private Duration minDelay = Duration.ofMillis(50);
+
+        /** Upper bound of the hedging delay, also used until enough latencies are recorded. */
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        /** Hedges allowed per request, e.g. 0.1 allows one hedge every ten requests. */
+        private double budgetRatio = 0.1;
+
+        /** Maximum number of hedges that can be saved up and sent in a burst. */
+        private int maxBurst = 10;
+
+        /** Number of latest latencies the percentile is computed on. */
+        private int windowSize = 512;
+
+        /** Latencies needed before the percentile is used. */
+        private int minSamples = 50;
+    }
+
+    /**
+     * Response decoding of a single downstream client.
+     */
+    @Data
+    public static class Codec {
+
+        /**
+         * Maximum bytes buffered to decode a single element of the response. CBOR list
+         * responses are buffered whole, so with format CBOR it limits the whole response.
+         */
+        private DataSize maxInMemorySize = DataSize.ofKilobytes(256);
+
+        /** Whether list responses are requested as application/x-ndjson, falling back to JSON arrays. */
+        private boolean streaming = false;
+
+        /** Number of decoded elements requested ahead of the consumer. */
+        private int prefetch = 256;
+
+        /**
+         * Wire format asked for first; JSON stays acceptable for downstreams that do not support it.
+         * CBOR is rejected for the transaction client, whose streamed histories it would buffer whole.
+         */
+        private WireFormat format = WireFormat.JSON;
+
+        /** Whether responses are requested gzip compressed and decompressed as they stream in. */
+        private boolean compression = true;
+    }
+
+    /**
+     * Cursor-paginated fetching of list responses of a single downstream client.
+     */
+    @Data
+    public static class Pagination {
+
+        /** Whether lists are walked page by page instead of fetched in one response. */
+        private boolean enabled = false;
+
+        /** Elements per page; a page must fit in codec.max-in-memory-size. */
+        private int pageSize = 200;
+
+        /** Pages fetched ahead of the page being consumed. */
+        private int prefetchPages = 1;
+    }
+
+    /**
+     * Latency-adaptive timeouts of a single downstream client.
+     * Each operation keeps its own maximum; the request deadline always caps the timeout.
+     */
+    @Data
+    public static class Timeout {
+
+        /** Whether timeouts follow the observed latency instead of always using the maximum. */
+        private boolean adaptive = true;
+
+        /** Latency percentile the timeout is derived from. */
+        private double percentile = 0.99;
+
+        /** Factor applied to the percentile latency. */
+        private double multiplier = 2.0;
+
+        /** Lower bound of the timeout. */
+        private Duration min = Duration.ofMillis(300);
+
+        /** Number of latest latencies the percentile is computed on. */
+        private int windowSize = 512;
+
+        /** Latencies needed before the percentile is used. */
+        private int minSamples = 50;
+    }
+
+    /**
+     * Concurrency limit of the calls to a single downstream client.
+     */
+    @Data
+    public static class Bulkhead {
+
+        private boolean enabled = true;
+
+        /** Maximum number of calls in flight. */
+        private int maxConcurrentCalls = 50;
+
+        /** Maximum number of calls waiting for a free slot; beyond it calls are rejected at once. */
+        private int maxWaitingCalls = 100;
+
+        /** Maximum time a call waits for a free slot. */
+        private Duration maxWait = Duration.ofMillis(250);
+    }
+
+    /**
+     * Batched lookups against a single downstream client.
+     */
+    @Data
+    public static class Batch {
+
+        /** Maximum number of ids resolved in one group. */
+        private int size = 100;
+
+        /** Maximum number of lookups in flight for one batch request. */
+        private int concurrency = 8;
+
+        /** Maximum time a group waits to fill before it is resolved. */
+        private Duration maxWait = Duration.ofMillis(20);
+    }
+
+    /**
+     * Response formats a downstream can be asked for.
+     */
+    public enum WireFormat {
+        JSON,
+        SMILE,
+        CBOR
+    }
+
+    /**
+     * Leasing order of idle connections.
+     */
+    public enum LeasingStrategy {
+        FIFO,
+        LIFO
+    }
+}
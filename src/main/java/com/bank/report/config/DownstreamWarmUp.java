@@ -0,0 +1,171 @@
+package com.bank.report.config;
+
+import com.bank.report.model.dto.AccountResponse;
+import com.bank.report.model.dto.CreditResponse;
+import com.bank.report.model.dto.TransactionResponse;
+import com.bank.report.model.enums.TransactionStatus;
+import com.bank.report.model.enums.TransactionType;
+import com.bank.report.service.CustomerProductsService;
+import com.bank.report.service.CustomerProductsTransactionsService;
+import com.bank.report.service.ReportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Warms the service up after startup: opens connections to every downstream
+ * (resolving their instances through the load balancer), decodes synthetic payloads
+ * to get the JSON paths compiled and, when a warm-up customer is configured, computes
+ * its reports once through every service.
+ * Until it finishes this indicator is OUT_OF_SERVICE, which keeps the readiness group
+ * down; the time taken is published as report.warmup.duration.
+ */
+@Slf4j
+@Component
+public class DownstreamWarmUp implements HealthIndicator {
+
+    private static final int SYNTHETIC_ELEMENTS = 50;
+
+    private final DownstreamWebClientFactory webClientFactory;
+    private final ReportService reportService;
+    private final CustomerProductsService customerProductsService;
+    private final CustomerProductsTransactionsService customerProductsTransactionsService;
+    private final DownstreamProperties.WarmUp properties;
+    private final Timer duration;
+
+    private volatile boolean done;
+    private volatile long durationMillis;
+
+    public DownstreamWarmUp(DownstreamWebClientFactory webClientFactory,
+                            ReportService reportService,
+                            CustomerProductsService customerProductsService,
+                            CustomerProductsTransactionsService customerProductsTransactionsService,
+                            DownstreamProperties downstreamProperties,
+                            MeterRegistry meterRegistry) {
+        this.webClientFactory = webClientFactory;
+        this.reportService = reportService;
+        this.customerProductsService = customerProductsService;
+        this.customerProductsTransactionsService = customerProductsTransactionsService;
+        this.properties = downstreamProperties.getWarmUp();
+        this.done = !properties.isEnabled();
+        this.duration = Timer.builder("report.warmup.duration")
+                .description("Time spent warming up before reporting ready")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Starting warm-up: connections={}, iterations={}, customerId={}",
+                properties.getConnections(), properties.getIterations(), properties.getCustomerId());
+
+        long start = System.nanoTime();
+        webClientFactory.warmUp(properties.getConnections())
+                .then(Mono.fromRunnable(this::warmUpDecoding).subscribeOn(Schedulers.boundedElastic()))
+                .then(warmUpReports())
+                .timeout(properties.getTimeout())
+                .doOnError(error -> log.warn("Warm-up did not finish: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .doFinally(signal -> finish(System.nanoTime() - start))
+                .subscribe();
+    }
+
+    @Override
+    public Health health() {
+        if (!done) {
+            return Health.outOfService().withDetail("warmUp", "in progress").build();
+        }
+        return Health.up().withDetail("durationMs", durationMillis).build();
+    }
+
+    private void finish(long nanos) {
+        duration.record(nanos, TimeUnit.NANOSECONDS);
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        done = true;
+        log.info("Warm-up finished in {} ms", durationMillis);
+    }
+
+    /**
+     * Decodes synthetic responses with the downstream ObjectMapper
+     */
+    private void warmUpDecoding() {
+        ObjectMapper mapper = DownstreamObjectMapper.get();
+        try {
+            byte[] transactions = mapper.writeValueAsBytes(syntheticTransactions());
+            byte[] accounts = mapper.writeValueAsBytes(List.of(AccountResponse.builder()
+                    .id("warmup").customerId("warmup").balance(new BigDecimal("100.00"))
+                    .createdAt(LocalDateTime.now()).active(true).build()));
+            byte[] credits = mapper.writeValueAsBytes(List.of(CreditResponse.builder()
+                    .id("warmup").customerId("warmup").build()));
+
+            ObjectReader transactionReader = mapper.readerForListOf(TransactionResponse.class);
+            ObjectReader accountReader = mapper.readerForListOf(AccountResponse.class);
+            ObjectReader creditReader = mapper.readerForListOf(CreditResponse.class);
+            for (int i = 0; i < properties.getIterations(); i++) {
+                transactionReader.readValue(transactions);
+                accountReader.readValue(accounts);
+                creditReader.readValue(credits);
+            }
+        } catch (IOException ex) {
+            log.warn("Decode warm-up failed: {}", ex.getMessage());
+        }
+    }
+
+    private List<TransactionResponse> syntheticTransactions() {
+        List<TransactionResponse> transactions = new ArrayList<>(SYNTHETIC_ELEMENTS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < SYNTHETIC_ELEMENTS; i++) {
+            transactions.add(TransactionResponse.builder()
+                    .id("warmup-" + i)
+                    .transactionType(TransactionType.values()[i % TransactionType.values().length])
+                    .status(TransactionStatus.COMPLETED)
+                    .amount(BigDecimal.valueOf(i * 10L, 2))
+                    .balanceAfter(BigDecimal.valueOf(i * 100L, 2))
+                    .commission(BigDecimal.ZERO)
+                    .accountId("warmup")
+                    .customerId("warmup")
+                    .createdAt(now.minusHours(i))
+                    .build());
+        }
+        return transactions;
+    }
+
+    /**
+     * Computes the reports of the warm-up customer once through every service
+     */
+    private Mono<Void> warmUpReports() {
+        String customerId = properties.getCustomerId();
+        if (customerId == null || customerId.isBlank()) {
+            return Mono.empty();
+        }
+        String period = YearMonth.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
+        return Mono.when(
+                        reportService.calculateDailyAverage(customerId, period),
+                        reportService.calculateAverageCommissions(customerId, period),
+                        customerProductsService.getCustomerProducts(customerId),
+                        customerProductsTransactionsService.getCustomerProductsWithTransactions(customerId))
+                .onErrorResume(error -> {
+                    log.warn("Report warm-up for customer {} failed: {}", customerId, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,154 @@
+package com.bank.report.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Builds the WebClient of each downstream service on top of its own connection pool,
+ * so a slow service cannot exhaust the connections of the others.
+ * Pool gauges are published as reactor.netty.connection.provider.* metrics.
+ * Downstreams with http2 enabled are called over h2c, multiplexing concurrent requests
+ * on a few connections.
+ * Responses are decoded with the tuned {@link DownstreamObjectMapper}; downstreams with a
+ * binary codec.format are asked for Smile or CBOR first, falling back to JSON.
+ * Responses are requested gzip compressed unless codec.compression is off.
+ */
+@Slf4j
+@Component
+public class DownstreamWebClientFactory implements DisposableBean {
+
+    private final WebClient.Builder webClientBuilder;
+    private final DownstreamProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ConnectionProvider> connectionProviders = new ConcurrentHashMap<>();
+    private final Map<String, HttpClient> httpClients = new ConcurrentHashMap<>();
+    private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
+
+    public DownstreamWebClientFactory(@LoadBalanced WebClient.Builder webClientBuilder,
+                                      DownstreamProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.webClientBuilder = webClientBuilder;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates a load balanced WebClient for the given downstream
+     * @param name the downstream name (account, credit, debit, transaction)
+     * @param baseUrl the downstream base url
+     * @return WebClient bound to the downstream connection pool
+     */
+    public WebClient create(String name, String baseUrl) {
+        DownstreamProperties.Client client = properties.client(name);
+        ConnectionProvider connectionProvider = connectionProviders
+                .computeIfAbsent(name, key -> buildConnectionProvider(key, client.getPool()));
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .compress(client.getCodec().isCompression());
+        httpClients.put(name, httpClient);
+
+        int maxInMemorySize = (int) client.getCodec().getMaxInMemorySize().toBytes();
+
+        WebClient webClient = webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(buildConnector(name, client, httpClient))
+                // Antes del filtro del load balancer, que el post-processor de @LoadBalanced añadió primero
+                .filters(filters -> filters.add(0, LatencyAwareLoadBalancer.inFlightFilter()))
+                .filter(new WireFormatFilter(name, client.getCodec().getFormat(), meterRegistry))
+                .codecs(codecs -> {
+                    Jackson2JsonDecoder jsonDecoder = new Jackson2JsonDecoder(DownstreamObjectMapper.get());
+                    jsonDecoder.setMaxInMemorySize(maxInMemorySize);
+                    Jackson2SmileDecoder smileDecoder = new Jackson2SmileDecoder(DownstreamObjectMapper.smile());
+                    smileDecoder.setMaxInMemorySize(maxInMemorySize);
+                    BufferedCborDecoder cborDecoder = new BufferedCborDecoder(DownstreamObjectMapper.cbor());
+                    cborDecoder.setMaxInMemorySize(maxInMemorySize);
+
+                    codecs.defaultCodecs().jackson2JsonDecoder(new TimedDecoder(jsonDecoder, name, meterRegistry));
+                    codecs.defaultCodecs().jackson2SmileDecoder(new TimedDecoder(smileDecoder, name, meterRegistry));
+                    codecs.customCodecs().register(new TimedDecoder(cborDecoder, name, meterRegistry));
+                    codecs.defaultCodecs().maxInMemorySize(maxInMemorySize);
+                })
+                .build();
+        webClients.put(name, webClient);
+        return webClient;
+    }
+
+    /**
+     * Prepares every downstream created so far: initializes the event loops and resolver,
+     * resolves the service instances and opens connections to them
+     * @param connections concurrent requests sent to each downstream
+     * @return Mono completing once every downstream has answered or failed
+     */
+    public Mono<Void> warmUp(int connections) {
+        return Flux.fromIterable(webClients.entrySet())
+                .flatMap(entry -> warmUp(entry.getKey(), entry.getValue(), connections))
+                .then();
+    }
+
+    private Mono<Void> warmUp(String name, WebClient webClient, int connections) {
+        return httpClients.get(name).warmup()
+                .thenMany(Flux.range(0, connections)
+                        .flatMap(i -> webClient.get()
+                                .uri("/actuator/health")
+                                .retrieve()
+                                .toBodilessEntity()
+                                // Cualquier respuesta deja la conexión abierta en el pool
+                                .onErrorResume(error -> Mono.empty()), connections))
+                .then()
+                .doOnSuccess(done -> log.info("Warmed up {} connections to {} service", connections, name));
+    }
+
+    private ProtocolFallbackConnector buildConnector(String name, DownstreamProperties.Client client,
+                                                     HttpClient httpClient) {
+        DownstreamProperties.Http2 http2 = client.getHttp2();
+        ReactorClientHttpConnector http11Connector =
+                new ReactorClientHttpConnector(httpClient.protocol(HttpProtocol.HTTP11));
+        ReactorClientHttpConnector h2cConnector = null;
+        if (http2.isEnabled()) {
+            log.info("Enabling h2c for {} service", name);
+            h2cConnector = new ReactorClientHttpConnector(httpClient.protocol(HttpProtocol.H2C));
+        }
+        return new ProtocolFallbackConnector(name, h2cConnector, http11Connector,
+                http2.getFallbackDuration(), meterRegistry);
+    }
+
+    private ConnectionProvider buildConnectionProvider(String name, DownstreamProperties.Pool pool) {
+        log.info("Creating connection pool for {} service: maxConnections={}, pendingAcquireMaxCount={}, leasing={}",
+                name, pool.getMaxConnections(), pool.getPendingAcquireMaxCount(), pool.getLeasingStrategy());
+
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("report-" + name)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(true);
+
+        if (pool.getLeasingStrategy() == DownstreamProperties.LeasingStrategy.LIFO) {
+            builder.lifo();
+        } else {
+            builder.fifo();
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void destroy() {
+        connectionProviders.values().forEach(ConnectionProvider::dispose);
+    }
+}
@@ -0,0 +1,92 @@
+package com.bank.report.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Reads ISO local date-times (yyyy-MM-ddTHH:mm[:ss[.fffffffff]]) straight from the
+ * characters, without going through a DateTimeFormatter for every value.
+ * Any other shape (offsets, arrays, timestamps) is left to the standard deserializer.
+ */
+class FastLocalDateTimeDeserializer extends LocalDateTimeDeserializer {
+
+    static final FastLocalDateTimeDeserializer INSTANCE = new FastLocalDateTimeDeserializer();
+
+    private FastLocalDateTimeDeserializer() {
+        super();
+    }
+
+    @Override
+    public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_STRING)) {
+            LocalDateTime value = parse(parser.getText());
+            if (value != null) {
+                return value;
+            }
+        }
+        return super.deserialize(parser, context);
+    }
+
+    /**
+     * Parses an ISO local date-time
+     * @return the date-time, or null when the text has any other shape
+     */
+    static LocalDateTime parse(String text) {
+        int length = text.length();
+        if (length < 16 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || (text.charAt(10) != 'T' && text.charAt(10) != 't') || text.charAt(13) != ':') {
+            return null;
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 14, 16);
+        int second = 0;
+        int nano = 0;
+
+        if (length > 16) {
+            if (length < 19 || text.charAt(16) != ':') {
+                return null;
+            }
+            second = digits(text, 17, 19);
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                if (text.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return null;
+                }
+                nano = digits(text, 20, length);
+                for (int i = fractionDigits; i < 9 && nano >= 0; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
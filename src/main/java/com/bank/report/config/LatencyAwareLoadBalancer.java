@@ -0,0 +1,331 @@
+package com.bank.report.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Power-of-two-choices balancer: for every request two instances are drawn at random
+ * and the one with the lower score, EWMA latency times (requests in flight + 1), is used.
+ * Instances without samples yet count with the mean EWMA of the sampled ones (or the
+ * configured initial latency), so their in-flight requests weigh against them as well.
+ * A degraded replica quickly gets a high score and stops receiving most of the traffic,
+ * while still being probed now and then so it can recover.
+ * Latency and in-flight counts come from the balancer lifecycle callbacks; requests
+ * cancelled before answering never complete there, so {@link #inFlightFilter()} must
+ * wrap the balancer filter to give their in-flight slot back.
+ * Stats of instances that leave the registry are dropped with their meters.
+ * Publishes report.loadbalancer.chosen, report.loadbalancer.score and
+ * report.loadbalancer.in.flight tagged with the service and instance.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    /** Client request attribute holding the in-flight slot of the request. */
+    static final String IN_FLIGHT_ATTRIBUTE = LatencyAwareLoadBalancer.class.getName() + ".inFlight";
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier;
+    private final DownstreamProperties.LoadBalancer properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private volatile List<ServiceInstance> knownInstances;
+
+    public LatencyAwareLoadBalancer(String serviceId,
+                                    ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier,
+                                    DownstreamProperties.LoadBalancer properties,
+                                    MeterRegistry meterRegistry) {
+        this.serviceId = serviceId;
+        this.instanceListSupplier = instanceListSupplier;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceListSupplier.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request)
+                .next()
+                .map(instances -> {
+                    Response<ServiceInstance> response = choose(instances);
+                    if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                        callback.selectedServiceInstance(response.getServer());
+                    }
+                    return response;
+                });
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances != knownInstances) {
+            expireStats(instances);
+        }
+        if (instances.isEmpty()) {
+            log.warn("No instances available for {} service", serviceId);
+            return new EmptyResponse();
+        }
+
+        ServiceInstance chosen;
+        if (instances.size() == 1) {
+            chosen = instances.get(0);
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(instances.size());
+            int second = random.nextInt(instances.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            ServiceInstance a = instances.get(first);
+            ServiceInstance b = instances.get(second);
+            InstanceStats statsA = stats(a);
+            InstanceStats statsB = stats(b);
+            double unsampledNanos = statsA.isSampled() && statsB.isSampled() ? 0 : unsampledLatencyNanos();
+            chosen = statsA.score(unsampledNanos) <= statsB.score(unsampledNanos) ? a : b;
+        }
+
+        stats(chosen).chosen.increment();
+        return new DefaultResponse(chosen);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        InstanceStats instanceStats = stats(lbResponse.getServer());
+        InFlightSlot slot = slot(request);
+        if (slot != null) {
+            slot.acquire(instanceStats);
+        } else {
+            instanceStats.inFlight.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats instanceStats = stats(lbResponse.getServer());
+        InFlightSlot slot = slot(completionContext.getLoadBalancerRequest());
+        if (slot != null) {
+            slot.release();
+        } else {
+            instanceStats.inFlight.decrementAndGet();
+        }
+
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            instanceStats.record(properties.getFailurePenalty().toNanos());
+            return;
+        }
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext context
+                && context.getRequestStartTime() > 0) {
+            instanceStats.record(System.nanoTime() - context.getRequestStartTime());
+        }
+    }
+
+    /**
+     * Filter that must run before the load balancer one. It gives every request an
+     * in-flight slot the balancer takes on start and releases on completion; when the
+     * exchange is cancelled before the response arrives (hedge losers, timeouts,
+     * firstWithSignal) no lifecycle callback runs, so the slot is released here
+     */
+    public static ExchangeFilterFunction inFlightFilter() {
+        return (request, next) -> {
+            InFlightSlot slot = new InFlightSlot();
+            return next.exchange(ClientRequest.from(request).attribute(IN_FLIGHT_ATTRIBUTE, slot).build())
+                    .doOnCancel(slot::release);
+        };
+    }
+
+    private static InFlightSlot slot(Request<?> request) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null
+                && context.getClientRequest().getAttributes().get(IN_FLIGHT_ATTRIBUTE) instanceof InFlightSlot slot) {
+            return slot;
+        }
+        return null;
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), InstanceStats::new);
+    }
+
+    /**
+     * Latency assumed for instances without samples: the mean EWMA of the sampled
+     * instances, or the configured initial latency when none has answered yet
+     */
+    private double unsampledLatencyNanos() {
+        double total = 0;
+        int sampled = 0;
+        for (InstanceStats instanceStats : stats.values()) {
+            double ewma = instanceStats.ewmaNanos();
+            if (ewma >= 0) {
+                total += ewma;
+                sampled++;
+            }
+        }
+        return sampled > 0 ? total / sampled : properties.getInitialLatency().toNanos();
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * Drops the stats of the instances missing from a new instance list.
+     * The supplier hands out the same list until the registry changes, so this runs
+     * once per change and not per request.
+     */
+    private void expireStats(List<ServiceInstance> instances) {
+        knownInstances = instances;
+        Set<String> keys = new HashSet<>(instances.size() * 2);
+        for (ServiceInstance instance : instances) {
+            keys.add(key(instance));
+        }
+        stats.entrySet().removeIf(entry -> {
+            if (keys.contains(entry.getKey())) {
+                return false;
+            }
+            log.debug("Instance {} of {} service left the registry, dropping its stats", entry.getKey(), serviceId);
+            entry.getValue().removeMeters();
+            return true;
+        });
+    }
+
+    /**
+     * In-flight slot of a single request, released exactly once whether the request
+     * completes or is cancelled.
+     */
+    private static final class InFlightSlot {
+
+        private InstanceStats instanceStats;
+        private boolean released;
+
+        private synchronized void acquire(InstanceStats instanceStats) {
+            if (!released && this.instanceStats == null) {
+                this.instanceStats = instanceStats;
+                instanceStats.inFlight.incrementAndGet();
+            }
+        }
+
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                if (instanceStats != null) {
+                    instanceStats.inFlight.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Moving average latency and requests in flight of a single instance.
+     */
+    private final class InstanceStats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter chosen;
+        private final Meter score;
+        private final Meter inFlightGauge;
+        private double ewmaNanos;
+        private boolean sampled;
+
+        private InstanceStats(String instance) {
+            this.chosen = Counter.builder("report.loadbalancer.chosen")
+                    .description("Requests sent to the instance")
+                    .tag("service", serviceId)
+                    .tag("instance", instance)
+                    .register(meterRegistry);
+            this.score = Gauge.builder("report.loadbalancer.score", this,
+                            instanceStats -> instanceStats.score(unsampledLatencyNanos()))
+                    .description("Load balancing score of the instance, lower is better")
+                    .tag("service", serviceId)
+                    .tag("instance", instance)
+                    .register(meterRegistry);
+            this.inFlightGauge = Gauge.builder("report.loadbalancer.in.flight", inFlight, AtomicInteger::get)
+                    .description("Requests in flight to the instance")
+                    .tag("service", serviceId)
+                    .tag("instance", instance)
+                    .register(meterRegistry);
+        }
+
+        private void removeMeters() {
+            meterRegistry.remove(chosen);
+            meterRegistry.remove(score);
+            meterRegistry.remove(inFlightGauge);
+        }
+
+        private synchronized void record(long nanos) {
+            if (!sampled) {
+                ewmaNanos = nanos;
+                sampled = true;
+            } else {
+                ewmaNanos += properties.getEwmaAlpha() * (nanos - ewmaNanos);
+            }
+        }
+
+        private synchronized boolean isSampled() {
+            return sampled;
+        }
+
+        /**
+         * Moving average latency, or -1 without samples
+         */
+        private synchronized double ewmaNanos() {
+            return sampled ? ewmaNanos : -1;
+        }
+
+        /**
+         * Score with the given latency standing in for the average while there are no samples
+         */
+        private synchronized double score(double unsampledNanos) {
+            return (sampled ? ewmaNanos : unsampledNanos) * (Math.max(0, inFlight.get()) + 1);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bank.report.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer of every downstream service, registered per service through
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}.
+ * Deliberately not a @Configuration: it must only be picked up by the load balancer
+ * child contexts, never by component scanning.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            DownstreamProperties downstreamProperties,
+            MeterRegistry meterRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        if (!downstreamProperties.getLoadBalancer().isLatencyAware()) {
+            return new RoundRobinLoadBalancer(
+                    loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId);
+        }
+        return new LatencyAwareLoadBalancer(serviceId,
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                downstreamProperties.getLoadBalancer(), meterRegistry);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bank.report.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.handler.codec.http2.Http2Exception;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpResponse;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.PrematureCloseException;
+
+/**
+ * Connector that sends requests over h2c (prior knowledge) and falls back to HTTP/1.1
+ * for a while when the downstream rejects HTTP/2 connections.
+ * Without an h2c connector every request goes over HTTP/1.1.
+ * Latency up to the response headers is recorded per protocol as report.downstream.latency.
+ */
+@Slf4j
+public class ProtocolFallbackConnector implements ClientHttpConnector {
+
+    private static final String HTTP_2 = "h2c";
+    private static final String HTTP_1_1 = "http1.1";
+
+    private final String name;
+    private final ClientHttpConnector h2cConnector;
+    private final ClientHttpConnector http11Connector;
+    private final Duration fallbackDuration;
+    private final Timer h2cTimer;
+    private final Timer http11Timer;
+
+    private volatile long fallbackUntil;
+
+    public ProtocolFallbackConnector(String name,
+                                     ClientHttpConnector h2cConnector,
+                                     ClientHttpConnector http11Connector,
+                                     Duration fallbackDuration,
+                                     MeterRegistry meterRegistry) {
+        this.name = name;
+        this.h2cConnector = h2cConnector;
+        this.http11Connector = http11Connector;
+        this.fallbackDuration = fallbackDuration;
+        this.h2cTimer = latencyTimer(meterRegistry, name, HTTP_2);
+        this.http11Timer = latencyTimer(meterRegistry, name, HTTP_1_1);
+    }
+
+    @Override
+    public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+                                            Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+        if (h2cConnector == null || System.currentTimeMillis() < fallbackUntil) {
+            return timed(http11Connector, http11Timer, method, uri, requestCallback);
+        }
+
+        return timed(h2cConnector, h2cTimer, method, uri, requestCallback)
+                .onErrorResume(this::isProtocolRejection, ex -> {
+                    log.warn("h2c rejected by {} service, falling back to HTTP/1.1 for {}: {}",
+                            name, fallbackDuration, ex.getMessage());
+                    fallbackUntil = System.currentTimeMillis() + fallbackDuration.toMillis();
+                    return timed(http11Connector, http11Timer, method, uri, requestCallback);
+                });
+    }
+
+    private Mono<ClientHttpResponse> timed(ClientHttpConnector connector, Timer timer, HttpMethod method, URI uri,
+                                           Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return connector.connect(method, uri, requestCallback)
+                    .doOnTerminate(() -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Only connection level failures are retried over HTTP/1.1; the request is never
+     * replayed once the downstream has answered it.
+     */
+    private boolean isProtocolRejection(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PrematureCloseException || cause instanceof Http2Exception) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Timer latencyTimer(MeterRegistry meterRegistry, String name, String protocol) {
+        return Timer.builder("report.downstream.latency")
+                .description("Time until the downstream response headers are received")
+                .tag("client", name)
+                .tag("protocol", protocol)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bank.report.config;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Calendar used by the reports.
+ */
+@Data
+@ConfigurationProperties(prefix = "report")
+public class ReportProperties {
+
+    /** Zone whose calendar defines the report periods and days. */
+    private ZoneId zone = ZoneOffset.UTC;
+
+    /** Offset of the createdAt date-times sent by the Transaction Service. */
+    private ZoneOffset timestampOffset = ZoneOffset.UTC;
+
+    /** Most periods a trend request may span. */
+    private int maxTrendPeriods = 36;
+}
@@ -0,0 +1,46 @@
+package com.bank.report.config;
+
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compression of the report responses.
+ */
+@Data
+@ConfigurationProperties(prefix = "response-compression")
+public class ResponseCompressionProperties {
+
+    private boolean enabled = true;
+
+    /** Content encoding used when the client accepts it. */
+    private Algorithm algorithm = Algorithm.GZIP;
+
+    /** Compression level, from 1 (fastest) to 9 (smallest). */
+    private int level = 6;
+
+    /** Single responses smaller than this are sent uncompressed; streamed responses are always compressed. */
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    /** Path prefixes whose responses are compressed. */
+    private List<String> paths = List.of("/api/reports/");
+
+    /**
+     * Supported content encodings.
+     */
+    public enum Algorithm {
+        GZIP("gzip"),
+        DEFLATE("deflate");
+
+        private final String encoding;
+
+        Algorithm(String encoding) {
+            this.encoding = encoding;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+    }
+}
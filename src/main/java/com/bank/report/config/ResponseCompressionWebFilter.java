@@ -0,0 +1,173 @@
+package com.bank.report.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compresses the report responses with the configured algorithm when the client accepts it.
+ * Single responses below the minimum size go out as they are; streamed (NDJSON) responses
+ * are compressed and flushed element by element.
+ * Per endpoint it publishes report.response.compression.ratio (original / compressed bytes),
+ * report.response.compression.time (CPU time spent compressing) and
+ * report.response.compression.skipped.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCompressionProperties.class)
+public class ResponseCompressionWebFilter implements WebFilter {
+
+    private final ResponseCompressionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCompressionWebFilter(ResponseCompressionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !isCompressedPath(exchange.getRequest()) || !acceptsEncoding(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate()
+                .response(new CompressingResponse(exchange))
+                .build());
+    }
+
+    private boolean isCompressedPath(ServerHttpRequest request) {
+        String path = request.getPath().pathWithinApplication().value();
+        return properties.getPaths().stream().anyMatch(path::startsWith);
+    }
+
+    private boolean acceptsEncoding(ServerHttpRequest request) {
+        String encoding = properties.getAlgorithm().getEncoding();
+        for (String header : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String value : header.split(",")) {
+                String[] parts = value.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase(encoding)) {
+                    return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Response whose body is compressed as it is written.
+     */
+    private final class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+
+        private CompressingResponse(ServerWebExchange exchange) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return super.writeWith(body);
+            }
+            if (body instanceof Mono<? extends DataBuffer> single) {
+                return single
+                        .map(buffer -> buffer.readableByteCount() < properties.getMinResponseSize().toBytes()
+                                ? skipped(buffer)
+                                : compressed(buffer))
+                        .flatMap(buffer -> super.writeWith(Mono.just(buffer)))
+                        .switchIfEmpty(Mono.defer(() -> super.writeWith(Mono.empty())));
+            }
+
+            ResponseCompressor compressor = startCompression();
+            return super.writeWith(Flux.<DataBuffer>from(body)
+                    .map(compressor::compress)
+                    .concatWith(Mono.fromCallable(compressor::finish))
+                    .doFinally(signal -> record(compressor)));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return super.writeAndFlushWith(body);
+            }
+
+            ResponseCompressor compressor = startCompression();
+            return super.writeAndFlushWith(Flux.<Publisher<? extends DataBuffer>>from(body)
+                    .map(chunk -> Flux.<DataBuffer>from(chunk).map(compressor::compress))
+                    .concatWith(Mono.fromCallable(() -> Mono.fromCallable(compressor::finish)
+                            .doFinally(signal -> record(compressor))))
+                    .doOnError(error -> record(compressor))
+                    .doOnCancel(() -> record(compressor)));
+        }
+
+        private DataBuffer skipped(DataBuffer buffer) {
+            // La respuesta depende igualmente de Accept-Encoding para las cachés intermedias
+            getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            meterRegistry.counter("report.response.compression.skipped", "endpoint", endpoint()).increment();
+            return buffer;
+        }
+
+        private DataBuffer compressed(DataBuffer buffer) {
+            ResponseCompressor compressor = startCompression();
+            try {
+                DataBuffer first = compressor.compress(buffer);
+                DataBuffer last = compressor.finish();
+                DataBuffer joined = bufferFactory().join(List.of(first, last));
+                getHeaders().setContentLength(joined.readableByteCount());
+                return joined;
+            } finally {
+                record(compressor);
+            }
+        }
+
+        private ResponseCompressor startCompression() {
+            HttpHeaders headers = getHeaders();
+            headers.set(HttpHeaders.CONTENT_ENCODING, properties.getAlgorithm().getEncoding());
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return new ResponseCompressor(bufferFactory(), properties.getAlgorithm(), properties.getLevel());
+        }
+
+        private void record(ResponseCompressor compressor) {
+            if (!compressor.end()) {
+                return;
+            }
+            String endpoint = endpoint();
+            String encoding = properties.getAlgorithm().getEncoding();
+            if (compressor.getCompressedBytes() > 0) {
+                DistributionSummary.builder("report.response.compression.ratio")
+                        .description("Original to compressed size of the report responses")
+                        .tag("endpoint", endpoint)
+                        .tag("encoding", encoding)
+                        .register(meterRegistry)
+                        .record((double) compressor.getOriginalBytes() / compressor.getCompressedBytes());
+            }
+            Timer.builder("report.response.compression.time")
+                    .description("CPU time spent compressing the report responses")
+                    .tag("endpoint", endpoint)
+                    .tag("encoding", encoding)
+                    .register(meterRegistry)
+                    .record(compressor.getNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        private String endpoint() {
+            Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return pattern != null ? pattern.toString() : "unknown";
+        }
+    }
+}
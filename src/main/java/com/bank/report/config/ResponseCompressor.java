@@ -0,0 +1,154 @@
+package com.bank.report.config;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+/**
+ * Compresses one response body buffer by buffer, flushing after each one so streamed
+ * responses reach the client as they are produced.
+ * Writes gzip (RFC 1952) or zlib deflate (RFC 1950) and keeps the byte counts and
+ * the time spent compressing. Not thread safe: a body is written sequentially.
+ */
+class ResponseCompressor {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final DataBufferFactory bufferFactory;
+    private final boolean gzip;
+    private final Deflater deflater;
+    private final CRC32 checksum;
+    private final byte[] chunk = new byte[8192];
+    private boolean headerWritten;
+    private boolean ended;
+    private long originalBytes;
+    private long compressedBytes;
+    private long nanos;
+
+    ResponseCompressor(DataBufferFactory bufferFactory, ResponseCompressionProperties.Algorithm algorithm, int level) {
+        this.bufferFactory = bufferFactory;
+        this.gzip = algorithm == ResponseCompressionProperties.Algorithm.GZIP;
+        this.deflater = new Deflater(level, gzip);
+        this.checksum = gzip ? new CRC32() : null;
+    }
+
+    /**
+     * Compresses a buffer of the body and releases it
+     * @return the compressed bytes, flushed
+     */
+    DataBuffer compress(DataBuffer buffer) {
+        long start = System.nanoTime();
+        try {
+            byte[] input = new byte[buffer.readableByteCount()];
+            buffer.read(input);
+            originalBytes += input.length;
+            if (checksum != null) {
+                checksum.update(input);
+            }
+
+            Output output = new Output();
+            writeHeader(output);
+            deflater.setInput(input);
+            deflate(output, Deflater.SYNC_FLUSH);
+            return output.toBuffer();
+        } finally {
+            DataBufferUtils.release(buffer);
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Ends the compressed stream
+     * @return the remaining compressed bytes and, for gzip, the trailer
+     */
+    DataBuffer finish() {
+        long start = System.nanoTime();
+        try {
+            Output output = new Output();
+            writeHeader(output);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk, 0, chunk.length);
+                output.write(chunk, 0, length);
+            }
+            if (checksum != null) {
+                output.writeIntLe((int) checksum.getValue());
+                output.writeIntLe((int) originalBytes);
+            }
+            return output.toBuffer();
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Frees the native deflater; safe to call more than once
+     * @return whether this call ended it
+     */
+    boolean end() {
+        if (ended) {
+            return false;
+        }
+        ended = true;
+        deflater.end();
+        return true;
+    }
+
+    long getOriginalBytes() {
+        return originalBytes;
+    }
+
+    long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+
+    private void writeHeader(Output output) {
+        if (gzip && !headerWritten) {
+            output.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+        }
+        headerWritten = true;
+    }
+
+    private void deflate(Output output, int flush) {
+        int length;
+        do {
+            length = deflater.deflate(chunk, 0, chunk.length, flush);
+            output.write(chunk, 0, length);
+        } while (length == chunk.length);
+    }
+
+    /**
+     * Growable byte array the compressed bytes of one call are collected in.
+     */
+    private final class Output {
+
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        private void write(byte[] source, int offset, int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void writeIntLe(int value) {
+            byte[] le = {(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)};
+            write(le, 0, le.length);
+        }
+
+        private DataBuffer toBuffer() {
+            compressedBytes += size;
+            return bufferFactory.wrap(ByteBuffer.wrap(bytes, 0, size));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bank.report.config;
+
+import com.bank.report.cache.Staleness;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tracks whether a request was answered from last-known-good snapshots and,
+ * if so, marks the response as stale before it is committed.
+ */
+@Component
+public class StalenessWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Staleness staleness = new Staleness();
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> Mono.fromRunnable(() -> staleness.writeHeaders(response.getHeaders())));
+        return chain.filter(exchange)
+                .contextWrite(staleness.context());
+    }
+}
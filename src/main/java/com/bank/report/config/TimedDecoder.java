@@ -0,0 +1,246 @@
+package com.bank.report.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.HttpMessageDecoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeType;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+/**
+ * Decoder wrapper that publishes report.downstream.decode, the time the decoder itself
+ * spends on a response body per format. Decoders emit synchronously while handling a
+ * buffer, so the time the consumers take with each decoded element is subtracted from
+ * the time spent handling the buffers.
+ */
+class TimedDecoder implements HttpMessageDecoder<Object> {
+
+    private final HttpMessageDecoder<Object> delegate;
+    private final String name;
+    private final MeterRegistry meterRegistry;
+
+    TimedDecoder(HttpMessageDecoder<Object> delegate, String name, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        return delegate.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                               MimeType mimeType, Map<String, Object> hints) {
+        return timed(inputStream, mimeType, input -> delegate.decode(input, elementType, mimeType, hints));
+    }
+
+    @Override
+    public Mono<Object> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                                     MimeType mimeType, Map<String, Object> hints) {
+        return Mono.from(timed(inputStream, mimeType,
+                input -> delegate.decodeToMono(input, elementType, mimeType, hints)));
+    }
+
+    @Override
+    public Object decode(DataBuffer buffer, ResolvableType targetType, MimeType mimeType, Map<String, Object> hints) {
+        long start = System.nanoTime();
+        try {
+            return delegate.decode(buffer, targetType, mimeType, hints);
+        } finally {
+            timer(mimeType).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return delegate.getDecodableMimeTypes();
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes(ResolvableType targetType) {
+        return delegate.getDecodableMimeTypes(targetType);
+    }
+
+    @Override
+    public Map<String, Object> getDecodeHints(ResolvableType actualType, ResolvableType elementType,
+                                              ServerHttpRequest request, ServerHttpResponse response) {
+        return delegate.getDecodeHints(actualType, elementType, request, response);
+    }
+
+    private <T> Flux<T> timed(Publisher<DataBuffer> inputStream, MimeType mimeType,
+                              Function<Flux<DataBuffer>, Publisher<T>> decoder) {
+        return Flux.defer(() -> {
+            Stopwatch stopwatch = new Stopwatch();
+            Flux<DataBuffer> input = Flux.from(inputStream)
+                    .transform(Operators.<DataBuffer, DataBuffer>lift(
+                            (scannable, actual) -> new DecoderInput(actual, stopwatch)));
+            return Flux.from(decoder.apply(input))
+                    .transform(Operators.<T, T>lift(
+                            (scannable, actual) -> new DecoderOutput<>(actual, stopwatch)))
+                    .doFinally(signal -> timer(mimeType).record(stopwatch.nanos, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Timer timer(MimeType mimeType) {
+        // El registro devuelve el timer existente para el mismo cliente y formato
+        return Timer.builder("report.downstream.decode")
+                .description("Time the decoder spends on the downstream response bodies")
+                .tag("client", name)
+                .tag("format", WireFormatFilter.formatOf(mimeType))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decoding time of a single body: runs while the decoder handles an input signal
+     * and pauses while a decoded element is handed to the consumers.
+     */
+    private static final class Stopwatch {
+
+        private boolean running;
+        private long startedAt;
+        private long nanos;
+
+        private void start() {
+            running = true;
+            startedAt = System.nanoTime();
+        }
+
+        private void stop() {
+            nanos += System.nanoTime() - startedAt;
+            running = false;
+        }
+
+        private boolean pause() {
+            if (!running) {
+                return false;
+            }
+            stop();
+            return true;
+        }
+    }
+
+    /**
+     * Times the signals of the body as the decoder handles them.
+     */
+    private static final class DecoderInput implements CoreSubscriber<DataBuffer> {
+
+        private final CoreSubscriber<? super DataBuffer> actual;
+        private final Stopwatch stopwatch;
+
+        private DecoderInput(CoreSubscriber<? super DataBuffer> actual, Stopwatch stopwatch) {
+            this.actual = actual;
+            this.stopwatch = stopwatch;
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            actual.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(DataBuffer buffer) {
+            stopwatch.start();
+            try {
+                actual.onNext(buffer);
+            } finally {
+                stopwatch.pause();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            actual.onError(error);
+        }
+
+        @Override
+        public void onComplete() {
+            // Los decoders que acumulan el cuerpo lo parsean al completarse
+            stopwatch.start();
+            try {
+                actual.onComplete();
+            } finally {
+                stopwatch.pause();
+            }
+        }
+    }
+
+    /**
+     * Leaves out of the decoding time what the consumers do with each decoded element.
+     */
+    private static final class DecoderOutput<T> implements CoreSubscriber<T> {
+
+        private final CoreSubscriber<? super T> actual;
+        private final Stopwatch stopwatch;
+
+        private DecoderOutput(CoreSubscriber<? super T> actual, Stopwatch stopwatch) {
+            this.actual = actual;
+            this.stopwatch = stopwatch;
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            actual.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(T value) {
+            boolean paused = stopwatch.pause();
+            try {
+                actual.onNext(value);
+            } finally {
+                if (paused) {
+                    stopwatch.start();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            boolean paused = stopwatch.pause();
+            try {
+                actual.onError(error);
+            } finally {
+                if (paused) {
+                    stopwatch.start();
+                }
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            boolean paused = stopwatch.pause();
+            try {
+                actual.onComplete();
+            } finally {
+                if (paused) {
+                    stopwatch.start();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bank.report.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Asks the downstream for the configured binary format first (Smile or CBOR),
+ * keeping the media types the request already accepts as fallback, and measures
+ * the size of every response body per format it was actually sent in
+ * (report.downstream.payload.bytes). Decoding time is measured by {@link TimedDecoder}.
+ */
+class WireFormatFilter implements ExchangeFilterFunction {
+
+    static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final String name;
+    private final MediaType preferred;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> payloadSizes = new ConcurrentHashMap<>();
+
+    WireFormatFilter(String name, DownstreamProperties.WireFormat format, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.preferred = switch (format) {
+            case SMILE -> APPLICATION_SMILE;
+            case CBOR -> MediaType.APPLICATION_CBOR;
+            case JSON -> null;
+        };
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        ClientRequest negotiated = preferred == null ? request : ClientRequest.from(request)
+                .headers(headers -> headers.setAccept(negotiate(headers.getAccept())))
+                .build();
+        return next.exchange(negotiated).map(this::measured);
+    }
+
+    private List<MediaType> negotiate(List<MediaType> accept) {
+        if (accept.contains(preferred)) {
+            return accept;
+        }
+        List<MediaType> negotiated = new ArrayList<>(accept.size() + 2);
+        negotiated.add(preferred);
+        negotiated.addAll(accept);
+        if (accept.isEmpty()) {
+            negotiated.add(MediaType.APPLICATION_JSON);
+        }
+        return negotiated;
+    }
+
+    private ClientResponse measured(ClientResponse response) {
+        String format = formatOf(response.headers().contentType().orElse(null));
+        return response.mutate()
+                .body(body -> Flux.defer(() -> {
+                    long[] bytes = new long[1];
+                    return body.doOnNext(buffer -> bytes[0] += buffer.readableByteCount())
+                            .doFinally(signal -> payloadSize(format).record(bytes[0]));
+                }))
+                .build();
+    }
+
+    /**
+     * Format tag of a response content type
+     */
+    static String formatOf(MimeType contentType) {
+        if (contentType == null) {
+            return "unknown";
+        }
+        if (APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            return "smile";
+        }
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return "cbor";
+        }
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return "ndjson";
+        }
+        return MediaType.APPLICATION_JSON.isCompatibleWith(contentType) ? "json" : "other";
+    }
+
+    private DistributionSummary payloadSize(String format) {
+        return payloadSizes.computeIfAbsent(format, key -> DistributionSummary
+                .builder("report.downstream.payload.bytes")
+                .description("Size of the downstream response bodies")
+                .baseUnit("bytes")
+                .tag("client", name)
+                .tag("format", key)
+                .register(meterRegistry));
+    }
+}
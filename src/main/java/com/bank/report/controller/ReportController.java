@@ -10,10 +10,12 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Slf4j
@@ -49,6 +51,32 @@ public class ReportController implements ReportsApi {
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
+    @Override
+    public Mono<ResponseEntity<ReportTrendResponse>> getReportTrend(
+            String customerId,
+            String fromPeriod,
+            String toPeriod,
+            ServerWebExchange exchange) {
+
+        log.info("GET /api/reports/trend - customerId: {}, fromPeriod: {}, toPeriod: {}", customerId, fromPeriod, toPeriod);
+
+        return reportService.calculateTrend(customerId, fromPeriod, toPeriod)
+                .map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Mono<ResponseEntity<StatementSummaryResponse>> getStatementSummary(
+            String customerId,
+            String period,
+            ServerWebExchange exchange) {
+
+        log.info("GET /api/reports/statement-summary - customerId: {}, period: {}", customerId, period);
+
+        return reportService.calculateStatementSummary(customerId, period)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
     @Override
     public Mono<ResponseEntity<CustomerProductsResponse>> getCustomerProducts(
             String customerId,
@@ -88,4 +116,19 @@ public class ReportController implements ReportsApi {
                 .doOnError(error -> log.error("Error retrieving debit primary account balance", error));
     }
 
+    @Override
+    public Mono<ResponseEntity<Flux<DebitPrimaryAccountBalanceResponse>>> getDebitPrimaryAccountBalances(
+            Mono<DebitPrimaryAccountBalanceBatchRequest> debitPrimaryAccountBalanceBatchRequest,
+            ServerWebExchange exchange
+    ) {
+        return debitPrimaryAccountBalanceBatchRequest
+                .map(request -> {
+                    log.info("Received request for debit primary account balances - debit cards: {}",
+                            request.getDebitIds().size());
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .body(debitPrimaryAccountBalanceService.getPrimaryAccountBalances(request.getDebitIds()));
+                });
+    }
+
 }
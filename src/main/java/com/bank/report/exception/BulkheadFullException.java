@@ -0,0 +1,12 @@
+package com.bank.report.exception;
+
+/**
+ * A downstream call rejected by its bulkhead. It is never answered from a fallback:
+ * the service is overloaded and the caller should retry later.
+ */
+public class BulkheadFullException extends ServiceUnavailableException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
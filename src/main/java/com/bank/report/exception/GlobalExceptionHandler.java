@@ -80,6 +80,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(response);
     }
 
+    /**
+     * Handle BulkheadFullException
+     */
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<Map<String, Object>> handleBulkheadFull(BulkheadFullException ex) {
+        log.warn("Downstream bulkhead full: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
     /**
      * Handle ServiceUnavailableException
      */
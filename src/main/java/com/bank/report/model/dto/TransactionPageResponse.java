@@ -0,0 +1,21 @@
+package com.bank.report.model.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a page of the transaction history.
+ * nextCursor is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponse {
+
+    private List<TransactionResponse> content;
+    private String nextCursor;
+}
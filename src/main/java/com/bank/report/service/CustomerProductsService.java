@@ -3,6 +3,7 @@ package com.bank.report.service;
 import com.bank.report.client.AccountClient;
 import com.bank.report.client.CreditClient;
 import com.bank.report.client.DebitClient;
+import com.bank.report.exception.BulkheadFullException;
 import com.bank.report.model.*;
 import com.bank.report.model.dto.AccountResponse;
 import com.bank.report.model.dto.CreditResponse;
@@ -53,7 +54,7 @@ public class CustomerProductsService {
                 .getDebitByCustomerId(customerId)
                 .map(this::mapToDebitCardSummary)
                 .map(List::of) // Convertir a lista de 1 elemento
-                .onErrorResume(error -> {
+                .onErrorResume(error -> !(error instanceof BulkheadFullException), error -> {
                     log.warn("No debit card found for customer {}: {}", customerId, error.getMessage());
                     return Mono.just(List.of()); // Retornar lista vacía si no existe
                 })
@@ -4,11 +4,14 @@ import com.bank.report.client.AccountClient;
 import com.bank.report.client.CreditClient;
 import com.bank.report.client.DebitClient;
 import com.bank.report.client.TransactionClient;
+import com.bank.report.client.TransactionFilter;
+import com.bank.report.exception.BulkheadFullException;
 import com.bank.report.model.*;
 import com.bank.report.model.dto.AccountResponse;
 import com.bank.report.model.dto.CreditResponse;
 import com.bank.report.model.dto.DebitResponse;
 import com.bank.report.model.dto.TransactionResponse;
+import com.bank.report.model.enums.TransactionStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -52,14 +55,14 @@ public class CustomerProductsTransactionsService {
         Mono<DebitResponse> debitMono = debitClient
                 .getDebitByCustomerId(customerId)
                 .doOnSuccess(debit -> log.debug("Found debit card"))
-                .onErrorResume(error -> {
+                .onErrorResume(error -> !(error instanceof BulkheadFullException), error -> {
                     log.warn("No debit card found for customer {}: {}", customerId, error.getMessage());
                     return Mono.empty(); // Retorna vacío, no null
                 });
 
-        // Obtener transacciones y filtrar solo COMPLETED
+        // Obtener transacciones y filtrar solo COMPLETED (el filtro también se envía al servicio)
         Mono<List<TransactionResponse>> transactionsMono = transactionClient
-                .getTransactionsByCustomer(customerId)
+                .getTransactionsByCustomer(customerId, TransactionFilter.withStatus(TransactionStatus.COMPLETED))
                 .filter(tx -> "COMPLETED".equalsIgnoreCase(tx.getStatus().toString()))
                 .collectList()
                 .doOnSuccess(txs -> log.debug("Found {} completed transactions", txs.size()));
@@ -2,10 +2,20 @@ package com.bank.report.service;
 
 import com.bank.report.client.AccountClient;
 import com.bank.report.client.DebitClient;
+import com.bank.report.config.DownstreamProperties;
 import com.bank.report.model.DebitPrimaryAccountBalanceResponse;
+import com.bank.report.model.dto.AccountResponse;
+import com.bank.report.model.dto.DebitResponse;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Slf4j
@@ -15,6 +25,7 @@ public class DebitPrimaryAccountBalanceService {
 
     private final DebitClient debitClient;
     private final AccountClient accountClient;
+    private final DownstreamProperties downstreamProperties;
 
     /**
      * Obtiene el balance de la cuenta principal asociada a una tarjeta de débito
@@ -28,19 +39,7 @@ public class DebitPrimaryAccountBalanceService {
                     log.debug("Primary account ID for debit {}: {}", debitId, primaryAccountId);
 
                     return accountClient.getAccount(primaryAccountId)
-                            .map(account -> {
-                                DebitPrimaryAccountBalanceResponse response = new DebitPrimaryAccountBalanceResponse();
-                                response.setDebitId(debit.getId());
-                                response.setAccountId(account.getId());
-                                response.setAccountNumber(account.getAccountNumber());
-                                response.setAccountType(account.getAccountType() != null ?
-                                        account.getAccountType().toString() : null);
-                                response.setBalance(account.getBalance() != null ?
-                                        account.getBalance().doubleValue() : 0.0);
-                                response.setCardNumber(debit.getCardNumber());
-                                response.setActive(account.isActive());
-                                return response;
-                            });
+                            .map(account -> toResponse(debit, account));
                 })
                 .doOnSuccess(response -> log.info("Primary account balance retrieved - accountId: {}, balance: {}",
                         response.getAccountId(), response.getBalance()))
@@ -48,4 +47,76 @@ public class DebitPrimaryAccountBalanceService {
                         debitId, error.getMessage()));
     }
 
+    /**
+     * Obtiene el balance de la cuenta principal de varias tarjetas de débito.
+     * Las tarjetas se resuelven con concurrencia acotada y sus cuentas principales se agrupan,
+     * sin repetir ids, para buscarlas en bloque. Las tarjetas que no se pueden resolver se omiten
+     */
+    public Flux<DebitPrimaryAccountBalanceResponse> getPrimaryAccountBalances(Collection<String> debitIds) {
+        log.info("Fetching primary account balance for {} debit cards", debitIds.size());
+
+        DownstreamProperties.Batch debitBatch = downstreamProperties.client("debit").getBatch();
+        DownstreamProperties.Batch accountBatch = downstreamProperties.client("account").getBatch();
+
+        return Flux.defer(() -> {
+            Map<String, Mono<AccountResponse>> accounts = new ConcurrentHashMap<>();
+
+            return Flux.fromIterable(new LinkedHashSet<>(debitIds))
+                    .flatMap(debitId -> debitClient.getDebitById(debitId)
+                            .onErrorResume(error -> {
+                                log.warn("Skipping debit card {} due to error: {}", debitId, error.getMessage());
+                                return Mono.empty();
+                            }), debitBatch.getConcurrency())
+                    .filter(debit -> debit.getPrimaryAccountId() != null)
+                    .bufferTimeout(accountBatch.getSize(), accountBatch.getMaxWait(), true)
+                    .flatMap(debits -> resolveGroup(debits, accounts), 2);
+        });
+    }
+
+    /**
+     * Busca en bloque las cuentas principales de un grupo de tarjetas.
+     * Cada id se pide una sola vez: si otro grupo ya lo está buscando (hay dos grupos en
+     * vuelo), se espera a esa búsqueda en lugar de repetirla. Si la búsqueda en bloque
+     * falla se omiten las tarjetas de sus cuentas, sin cortar la respuesta
+     */
+    private Flux<DebitPrimaryAccountBalanceResponse> resolveGroup(List<DebitResponse> debits,
+                                                                  Map<String, Mono<AccountResponse>> accounts) {
+        Set<String> claimed = new LinkedHashSet<>();
+        Mono<Map<String, AccountResponse>> lookup = Mono.defer(() -> accountClient.getAccounts(claimed)
+                        .collectMap(AccountResponse::getId))
+                .onErrorResume(error -> {
+                    log.warn("Skipping debit cards of {} primary accounts due to error: {}",
+                            claimed.size(), error.getMessage());
+                    return Mono.just(Map.of());
+                })
+                .cache();
+        for (DebitResponse debit : debits) {
+            accounts.computeIfAbsent(debit.getPrimaryAccountId(), accountId -> {
+                claimed.add(accountId);
+                return lookup.mapNotNull(found -> found.get(accountId));
+            });
+        }
+
+        return Flux.fromIterable(debits)
+                .concatMap(debit -> accounts.get(debit.getPrimaryAccountId())
+                        .map(account -> toResponse(debit, account))
+                        .switchIfEmpty(Mono.fromRunnable(() -> log.warn(
+                                "Skipping debit card {}: primary account {} not found",
+                                debit.getId(), debit.getPrimaryAccountId()))));
+    }
+
+    private DebitPrimaryAccountBalanceResponse toResponse(DebitResponse debit, AccountResponse account) {
+        DebitPrimaryAccountBalanceResponse response = new DebitPrimaryAccountBalanceResponse();
+        response.setDebitId(debit.getId());
+        response.setAccountId(account.getId());
+        response.setAccountNumber(account.getAccountNumber());
+        response.setAccountType(account.getAccountType() != null ?
+                account.getAccountType().toString() : null);
+        response.setBalance(account.getBalance() != null ?
+                account.getBalance().doubleValue() : 0.0);
+        response.setCardNumber(debit.getCardNumber());
+        response.setActive(account.isActive());
+        return response;
+    }
+
 }
@@ -1,34 +1,68 @@
 package com.bank.report.service;
 
 import com.bank.report.client.TransactionClient;
+import com.bank.report.config.ReportProperties;
+import com.bank.report.exception.BusinessRuleException;
+import com.bank.report.model.AccountCommissionAvg;
+import com.bank.report.model.AccountDailyAvg;
 import com.bank.report.model.CommissionAvgResponse;
 import com.bank.report.model.DailyAvgResponse;
+import com.bank.report.model.PeriodTrend;
+import com.bank.report.model.ReportTrendResponse;
+import com.bank.report.model.StatementSummaryResponse;
+import com.bank.report.model.TransactionTypeSummary;
 import com.bank.report.model.dto.TransactionResponse;
+import com.bank.report.model.enums.TransactionStatus;
+import com.bank.report.model.enums.TransactionType;
+import com.bank.report.service.aggregation.AmountAccumulator;
+import com.bank.report.service.aggregation.AverageAccumulator;
+import com.bank.report.service.aggregation.DailyBalanceAccumulator;
+import com.bank.report.service.aggregation.StatementAccumulator;
+import com.bank.report.service.aggregation.TrendAccumulator;
+import com.bank.report.service.query.ReportFilterCompiler;
+import com.bank.report.service.query.ReportQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ReportService {
 
-    private final TransactionClient transactionClient;
     private static final DateTimeFormatter PERIOD_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
 
+    private final TransactionClient transactionClient;
+    private final ReportFilterCompiler filterCompiler;
+    private final ReportProperties reportProperties;
+
+    /**
+     * Time-weighted daily average: the customer's end-of-day balance of every day of the
+     * period up to today, carrying the last known balance over days without activity
+     */
     public Mono<DailyAvgResponse> calculateDailyAverage(String customerId, String period) {
         log.info("Calculating daily average for customer: {} in period: {}", customerId, period);
 
-        return transactionClient.findByCustomerId(customerId)
-                .filter(transaction -> matchesPeriod(transaction, period))
-                .collectList()
-                .flatMap(transactions -> calculateBalanceAverage(transactions))
+        return Mono.fromCallable(() -> ReportFilterCompiler.parsePeriod(period))
+                .flatMap(month -> {
+                    long[] dayStarts = filterCompiler.dayStarts(month);
+                    // El historial previo al periodo da el saldo inicial de cada cuenta
+                    return findTransactions(customerId, ReportQuery.builder().to(month.atEndOfMonth()).build())
+                            .filter(this::changesBalance)
+                            .reduceWith(() -> new DailyBalanceAccumulator(dayStarts), (accumulator, transaction) ->
+                                    accumulator.add(transaction.getAccountId(),
+                                            filterCompiler.epochSecond(transaction.getCreatedAt()),
+                                            transaction.getBalanceAfter()));
+                })
+                .flatMap(this::calculateBalanceAverage)
                 .doOnSuccess(result -> {
                     if (result != null) {
                         log.info("Daily average calculated successfully: {}", result);
@@ -40,10 +74,9 @@ public class ReportService {
     public Mono<CommissionAvgResponse> calculateAverageCommissions(String customerId, String period) {
         log.info("Calculating average commissions for customer: {} in period: {}", customerId, period);
 
-        return transactionClient.findByCustomerId(customerId)
-                .filter(transaction -> matchesPeriod(transaction, period))
-                .filter(transaction -> hasCommission(transaction))
-                .collectList()
+        return findTransactions(customerId, ReportQuery.builder().period(period).withCommission(true).build())
+                .reduceWith(AverageAccumulator::new, (accumulator, transaction) ->
+                        accumulator.add(transaction.getCommission(), transaction.getAccountId()))
                 .flatMap(this::calculateCommissionAverage)
                 .doOnSuccess(result -> {
                     if (result != null) {
@@ -53,68 +86,188 @@ public class ReportService {
                 .doOnError(error -> log.error("Error calculating average commission: {}", error.getMessage()));
     }
 
-    private boolean hasCommission(TransactionResponse transaction) {
-        return transaction.getCommission() != null &&
-                transaction.getCommission().compareTo(BigDecimal.ZERO) > 0;
+    /**
+     * Daily average balance, commissions, balance range and transactions per type of a period,
+     * computed from a single history fetch in one pass
+     */
+    public Mono<StatementSummaryResponse> calculateStatementSummary(String customerId, String period) {
+        log.info("Calculating statement summary for customer: {} in period: {}", customerId, period);
+
+        return Mono.fromCallable(() -> ReportFilterCompiler.parsePeriod(period))
+                .flatMap(month -> {
+                    long[] dayStarts = filterCompiler.dayStarts(month);
+                    return findTransactions(customerId, ReportQuery.builder().to(month.atEndOfMonth()).build())
+                            .reduceWith(() -> new StatementAccumulator(dayStarts), this::addToStatement);
+                })
+                .flatMap(statement -> toStatementSummary(customerId, period, statement))
+                .doOnSuccess(result -> {
+                    if (result != null) {
+                        log.info("Statement summary calculated successfully for customer: {}", customerId);
+                    }
+                })
+                .doOnError(error -> log.error("Error calculating statement summary: {}", error.getMessage()));
     }
 
-    private Mono<CommissionAvgResponse> calculateCommissionAverage(List<TransactionResponse> transactions) {
-        if (transactions.isEmpty()) {
-            log.warn("No transactions with commissions found for the given period");
-            return Mono.empty();
+    private StatementAccumulator addToStatement(StatementAccumulator statement, TransactionResponse transaction) {
+        long epochSecond = filterCompiler.epochSecond(transaction.getCreatedAt());
+        if (changesBalance(transaction)) {
+            statement.addBalance(transaction.getAccountId(), epochSecond, transaction.getBalanceAfter());
         }
+        return statement.addTransaction(epochSecond, transaction.getTransactionType(), transaction.getStatus(),
+                transaction.getAmount(), transaction.getCommission());
+    }
 
-        // Sumar todas las comisiones
-        BigDecimal total = transactions.stream()
-                .map(TransactionResponse::getCommission)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private Mono<StatementSummaryResponse> toStatementSummary(String customerId, String period,
+                                                              StatementAccumulator statement) {
+        AmountAccumulator dailyTotals = statement.dailyTotals(Instant.now().getEpochSecond());
+        if (statement.isEmpty() && dailyTotals.isEmpty()) {
+            log.warn("No transactions found for the given period");
+            return Mono.empty();
+        }
 
-        // Calcular promedio
-        BigDecimal count = BigDecimal.valueOf(transactions.size());
-        BigDecimal average = total.divide(count, 2, RoundingMode.HALF_UP);
+        StatementSummaryResponse response = new StatementSummaryResponse();
+        response.setCustomerId(customerId);
+        response.setPeriod(period);
+        if (!dailyTotals.isEmpty()) {
+            response.setAvgDaily(dailyTotals.average().doubleValue());
+            response.setMinBalance(dailyTotals.min().doubleValue());
+            response.setMaxBalance(dailyTotals.max().doubleValue());
+        }
 
-        // Obtener el accountId de la primera transacción
-        String accountId = transactions.get(0).getAccountId();
+        AmountAccumulator commissions = statement.getCommissions();
+        response.setTotalCommissions(commissions.sum().doubleValue());
+        response.setCommissionCount(commissions.getCount());
+        if (!commissions.isEmpty()) {
+            response.setAvgCommissions(commissions.average().doubleValue());
+        }
 
-        // Crear response
-        CommissionAvgResponse response = new CommissionAvgResponse();
-        response.setAccountId(accountId);
-        response.setAvgCommissions(average.doubleValue());
+        for (TransactionType type : TransactionType.values()) {
+            long count = statement.count(type);
+            if (count == 0) {
+                continue;
+            }
+            TransactionTypeSummary summary = new TransactionTypeSummary();
+            summary.setTransactionType(type.name());
+            summary.setCount(count);
+            summary.setCompleted(statement.count(type, TransactionStatus.COMPLETED));
+            summary.setPending(statement.count(type, TransactionStatus.PENDING));
+            summary.setFailed(statement.count(type, TransactionStatus.FAILED));
+            summary.setTotalAmount(statement.completedTotal(type).doubleValue());
+            response.addTransactionTypesItem(summary);
+        }
 
         return Mono.just(response);
     }
 
-    private boolean matchesPeriod(TransactionResponse transaction, String period) {
-        if (transaction.getCreatedAt() == null) {
-            return false;
+    /**
+     * Daily average balance and average commission of every period from fromPeriod to toPeriod,
+     * computed from a single history fetch in one pass
+     */
+    public Mono<ReportTrendResponse> calculateTrend(String customerId, String fromPeriod, String toPeriod) {
+        log.info("Calculating trend for customer: {} from period: {} to period: {}", customerId, fromPeriod, toPeriod);
+
+        return Mono.defer(() -> {
+                    YearMonth first = ReportFilterCompiler.parsePeriod(fromPeriod);
+                    YearMonth last = ReportFilterCompiler.parsePeriod(toPeriod);
+                    long periods = ChronoUnit.MONTHS.between(first, last) + 1;
+                    if (periods < 1 || periods > reportProperties.getMaxTrendPeriods()) {
+                        return Mono.error(new BusinessRuleException("The trend must span from 1 to "
+                                + reportProperties.getMaxTrendPeriods() + " periods"));
+                    }
+
+                    long[] dayStarts = filterCompiler.dayStarts(first, last);
+                    long[] periodStarts = filterCompiler.monthStarts(first, last);
+                    // El historial previo al rango da el saldo inicial de cada cuenta
+                    return findTransactions(customerId, ReportQuery.builder().to(last.atEndOfMonth()).build())
+                            .reduceWith(() -> new TrendAccumulator(dayStarts, periodStarts), this::addToTrend)
+                            .map(trend -> toTrendResponse(customerId, first, trend));
+                })
+                .doOnSuccess(result -> log.info("Trend calculated successfully for customer: {}", customerId))
+                .doOnError(error -> log.error("Error calculating trend: {}", error.getMessage()));
+    }
+
+    private TrendAccumulator addToTrend(TrendAccumulator trend, TransactionResponse transaction) {
+        long epochSecond = filterCompiler.epochSecond(transaction.getCreatedAt());
+        if (changesBalance(transaction)) {
+            trend.addBalance(transaction.getAccountId(), epochSecond, transaction.getBalanceAfter());
+        }
+        if (transaction.getCommission() != null && transaction.getCommission().signum() > 0) {
+            trend.addCommission(epochSecond, transaction.getCommission());
         }
-        String transactionPeriod = transaction.getCreatedAt()
-                .format(PERIOD_FORMATTER);
-        return period.equals(transactionPeriod);
+        return trend;
     }
 
-    private Mono<DailyAvgResponse> calculateBalanceAverage(List<TransactionResponse> transactions) {
-        if (transactions.isEmpty()) {
-            log.warn("No transactions found for the given period");
+    private ReportTrendResponse toTrendResponse(String customerId, YearMonth first, TrendAccumulator trend) {
+        BigDecimal[] dailyAverages = trend.dailyAverages(Instant.now().getEpochSecond());
+
+        ReportTrendResponse response = new ReportTrendResponse();
+        response.setCustomerId(customerId);
+        for (int period = 0; period < trend.periods(); period++) {
+            PeriodTrend periodTrend = new PeriodTrend();
+            periodTrend.setPeriod(first.plusMonths(period).format(PERIOD_FORMATTER));
+            if (dailyAverages[period] != null) {
+                periodTrend.setAvgDaily(dailyAverages[period].doubleValue());
+            }
+            BigDecimal commissionAverage = trend.commissionAverage(period);
+            if (commissionAverage != null) {
+                periodTrend.setAvgCommissions(commissionAverage.doubleValue());
+            }
+            response.addPeriodsItem(periodTrend);
+        }
+        return response;
+    }
+
+    /**
+     * Transactions of the customer matching the query, compiled once per call
+     */
+    private Flux<TransactionResponse> findTransactions(String customerId, ReportQuery query) {
+        return Mono.fromCallable(() -> filterCompiler.compile(query))
+                .flatMapMany(filter -> transactionClient.findByCustomerId(customerId, filter.getDownstreamFilter())
+                        .filter(filter));
+    }
+
+    private Mono<CommissionAvgResponse> calculateCommissionAverage(AverageAccumulator commissions) {
+        if (commissions.isEmpty()) {
+            log.warn("No transactions with commissions found for the given period");
             return Mono.empty();
         }
 
-        // Sumar todos los balanceAfter
-        BigDecimal total = transactions.stream()
-                .map(TransactionResponse::getBalanceAfter)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        CommissionAvgResponse response = new CommissionAvgResponse();
+        response.setAccountId(commissions.getFirstAccountId());
+        response.setAvgCommissions(commissions.average().doubleValue());
+        commissions.accountAverages().forEach((accountId, average) -> {
+            AccountCommissionAvg account = new AccountCommissionAvg();
+            account.setAccountId(accountId);
+            account.setAvgCommissions(average.doubleValue());
+            response.addAccountsItem(account);
+        });
+
+        return Mono.just(response);
+    }
 
-        // Calcular promedio
-        BigDecimal count = BigDecimal.valueOf(transactions.size());
-        BigDecimal average = total.divide(count, 2, RoundingMode.HALF_UP);
+    private boolean changesBalance(TransactionResponse transaction) {
+        return transaction.getAccountId() != null
+                && transaction.getBalanceAfter() != null
+                && transaction.getStatus() != TransactionStatus.FAILED;
+    }
 
-        // Obtener el accountId de la primera transacción
-        String accountId = transactions.get(0).getAccountId();
+    private Mono<DailyAvgResponse> calculateBalanceAverage(DailyBalanceAccumulator balances) {
+        long now = Instant.now().getEpochSecond();
+        BigDecimal average = balances.dailyAverage(now);
+        if (average == null) {
+            log.warn("No balances found for the given period");
+            return Mono.empty();
+        }
 
-        // Crear response (con o sin builder dependiendo de tu configuración)
         DailyAvgResponse response = new DailyAvgResponse();
-        response.setAccountId(accountId);
-        response.setAvgDaily(average.toBigInteger().doubleValue());
+        response.setAccountId(balances.getFirstAccountId());
+        response.setAvgDaily(average.doubleValue());
+        balances.accountDailyAverages(now).forEach((accountId, accountAverage) -> {
+            AccountDailyAvg account = new AccountDailyAvg();
+            account.setAccountId(accountId);
+            account.setAvgDaily(accountAverage.doubleValue());
+            response.addAccountsItem(account);
+        });
 
         return Mono.just(response);
     }
@@ -0,0 +1,67 @@
+package com.bank.report.service.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from account id to a dense index (0, 1, 2... in order of first
+ * appearance), so per-account state can live in plain arrays indexed by it.
+ * Looking up a known account allocates nothing.
+ * Not thread safe: one index per subscription.
+ */
+final class AccountIndex {
+
+    private String[] keys = new String[4];
+    /** Index + 1 of the key in each slot, 0 when the slot is free. */
+    private int[] slots = new int[8];
+    private int size;
+
+    /**
+     * Index of the account, adding it when new
+     */
+    int indexOf(String accountId) {
+        int mask = slots.length - 1;
+        int slot = mix(accountId.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if (keys[index].equals(accountId)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int index = size++;
+        if (index == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        keys[index] = accountId;
+        slots[slot] = index + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String accountId(int index) {
+        return keys[index];
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = mix(keys[index].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
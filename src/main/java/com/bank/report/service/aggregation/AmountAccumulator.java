@@ -0,0 +1,186 @@
+package com.bank.report.service.aggregation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Sum, count, min, max and average of money amounts kept as a {@code long} of minor
+ * units (cents, scale 2), so folding an amount in allocates nothing.
+ * Amounts with more than two significant decimals, or a sum that would overflow,
+ * switch the accumulator to exact {@link BigDecimal} arithmetic for the rest of the fold.
+ * Results are the same as summing the BigDecimals and dividing with scale 2, HALF_UP.
+ * Not thread safe: one accumulator per subscription.
+ */
+public final class AmountAccumulator {
+
+    public static final int SCALE = 2;
+
+    static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double MINOR_UNITS_PER_UNIT = 100d;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    private BigDecimal exactSum;
+    private BigDecimal exactMin;
+    private BigDecimal exactMax;
+
+    /**
+     * Adds an amount
+     * @param amount the amount, never null
+     * @return this accumulator
+     */
+    public AmountAccumulator add(BigDecimal amount) {
+        if (exactSum == null) {
+            long minorUnits = toMinorUnits(amount);
+            if (minorUnits != NOT_REPRESENTABLE && tryAdd(minorUnits)) {
+                return this;
+            }
+            switchToExact();
+        }
+        addExact(amount);
+        return this;
+    }
+
+    /**
+     * Adds an amount already expressed in minor units
+     * @param minorUnits the amount in cents
+     * @return this accumulator
+     */
+    public AmountAccumulator addMinorUnits(long minorUnits) {
+        if (exactSum == null) {
+            if (tryAdd(minorUnits)) {
+                return this;
+            }
+            switchToExact();
+        }
+        addExact(BigDecimal.valueOf(minorUnits, SCALE));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Whether the accumulator fell back to BigDecimal arithmetic
+     */
+    public boolean isExact() {
+        return exactSum != null;
+    }
+
+    public BigDecimal sum() {
+        return exactSum != null ? exactSum : BigDecimal.valueOf(sum, SCALE);
+    }
+
+    /**
+     * Smallest amount added, null when empty
+     */
+    public BigDecimal min() {
+        if (count == 0) {
+            return null;
+        }
+        return exactMin != null ? exactMin : BigDecimal.valueOf(min, SCALE);
+    }
+
+    /**
+     * Largest amount added, null when empty
+     */
+    public BigDecimal max() {
+        if (count == 0) {
+            return null;
+        }
+        return exactMax != null ? exactMax : BigDecimal.valueOf(max, SCALE);
+    }
+
+    /**
+     * Average of the amounts added, scale 2 rounded HALF_UP
+     * @throws ArithmeticException when empty
+     */
+    public BigDecimal average() {
+        if (count == 0) {
+            throw new ArithmeticException("Average of no amounts");
+        }
+        if (exactSum != null) {
+            return exactSum.divide(BigDecimal.valueOf(count), SCALE, RoundingMode.HALF_UP);
+        }
+        long quotient = sum / count;
+        long remainder = Math.abs(sum % count);
+        // HALF_UP: un resto de la mitad o más se redondea alejándose de cero
+        if (remainder >= count - remainder) {
+            quotient += Long.signum(sum);
+        }
+        return BigDecimal.valueOf(quotient, SCALE);
+    }
+
+    private boolean tryAdd(long minorUnits) {
+        long result = sum + minorUnits;
+        if (((sum ^ result) & (minorUnits ^ result)) < 0) {
+            return false;
+        }
+        sum = result;
+        min = Math.min(min, minorUnits);
+        max = Math.max(max, minorUnits);
+        count++;
+        return true;
+    }
+
+    private void switchToExact() {
+        exactSum = BigDecimal.valueOf(sum, SCALE);
+        if (count > 0) {
+            exactMin = BigDecimal.valueOf(min, SCALE);
+            exactMax = BigDecimal.valueOf(max, SCALE);
+        }
+    }
+
+    private void addExact(BigDecimal amount) {
+        exactSum = exactSum.add(amount);
+        exactMin = exactMin == null || amount.compareTo(exactMin) < 0 ? amount : exactMin;
+        exactMax = exactMax == null || amount.compareTo(exactMax) > 0 ? amount : exactMax;
+        count++;
+    }
+
+    /**
+     * Exact value of an amount in minor units, or NOT_REPRESENTABLE
+     */
+    static long toMinorUnits(BigDecimal amount) {
+        int scale = amount.scale();
+        if (scale >= 0 && scale <= SCALE && amount.precision() + SCALE - scale <= MAX_FAST_DIGITS) {
+            // Con menos de 2^50 centavos, doubleValue() (sin asignar memoria para valores compactos)
+            // por 100 queda a menos de medio centavo del valor exacto
+            return Math.round(amount.doubleValue() * MINOR_UNITS_PER_UNIT);
+        }
+
+        BigDecimal value = amount;
+        if (scale > SCALE) {
+            value = amount.stripTrailingZeros();
+            scale = value.scale();
+            if (scale > SCALE) {
+                return NOT_REPRESENTABLE;
+            }
+        }
+        int shift = SCALE - scale;
+        if (value.precision() > 18 || shift >= POWERS_OF_TEN.length) {
+            return NOT_REPRESENTABLE;
+        }
+        long unscaled = value.unscaledValue().longValue();
+        long power = POWERS_OF_TEN[shift];
+        if (Math.abs(unscaled) > Long.MAX_VALUE / power) {
+            return NOT_REPRESENTABLE;
+        }
+        return unscaled * power;
+    }
+}
@@ -0,0 +1,86 @@
+package com.bank.report.service.aggregation;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Running sum and count of amounts, in total and per account, folded in one element
+ * at a time so the average of a history needs memory proportional to its accounts only.
+ * The amounts are kept by {@link AmountAccumulator}s in minor units; the average is
+ * the exact sum divided by the count, rounded HALF_UP to scale 2.
+ * Not thread safe: one accumulator per subscription.
+ */
+public final class AverageAccumulator {
+
+    private final AmountAccumulator amounts = new AmountAccumulator();
+    private final AccountIndex accounts = new AccountIndex();
+    private AmountAccumulator[] accountAmounts = new AmountAccumulator[4];
+    private String firstAccountId;
+
+    /**
+     * Adds an amount to the average
+     * @param amount the amount
+     * @param accountId the account the amount belongs to
+     * @return this accumulator
+     */
+    public AverageAccumulator add(BigDecimal amount, String accountId) {
+        if (amounts.isEmpty()) {
+            firstAccountId = accountId;
+        }
+        amounts.add(amount);
+        if (accountId != null) {
+            accountAmounts(accountId).add(amount);
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return amounts.isEmpty();
+    }
+
+    public long getCount() {
+        return amounts.getCount();
+    }
+
+    public BigDecimal getTotal() {
+        return amounts.sum();
+    }
+
+    /**
+     * Account of the first amount added
+     */
+    public String getFirstAccountId() {
+        return firstAccountId;
+    }
+
+    /**
+     * Average of the amounts added, scale 2 rounded HALF_UP
+     */
+    public BigDecimal average() {
+        return amounts.average();
+    }
+
+    /**
+     * Average of the amounts of every account, in order of first appearance
+     */
+    public Map<String, BigDecimal> accountAverages() {
+        Map<String, BigDecimal> averages = new LinkedHashMap<>();
+        for (int index = 0; index < accounts.size(); index++) {
+            averages.put(accounts.accountId(index), accountAmounts[index].average());
+        }
+        return averages;
+    }
+
+    private AmountAccumulator accountAmounts(String accountId) {
+        int index = accounts.indexOf(accountId);
+        if (index == accountAmounts.length) {
+            accountAmounts = Arrays.copyOf(accountAmounts, accountAmounts.length * 2);
+        }
+        if (accountAmounts[index] == null) {
+            accountAmounts[index] = new AmountAccumulator();
+        }
+        return accountAmounts[index];
+    }
+}
@@ -0,0 +1,287 @@
+package com.bank.report.service.aggregation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * End-of-day balances of every account of a customer over a range of days, built in a single
+ * pass over the transactions in any order.
+ * Each account keeps one slot per day of the period (primitive arrays, cents) holding the
+ * balanceAfter of its latest transaction that day, plus the opening balance: the latest
+ * balance before the period. Days without activity carry the previous balance forward.
+ * Balances that do not fit in a long of cents are kept as BigDecimals, and the daily totals
+ * are then summed as BigDecimals too.
+ * Not thread safe: one accumulator per subscription.
+ */
+public final class DailyBalanceAccumulator {
+
+    private final long[] dayStarts;
+    private final AccountIndex accounts = new AccountIndex();
+    private AccountDays[] days = new AccountDays[4];
+    private boolean exact;
+
+    /**
+     * @param dayStarts epoch second at which every day starts, followed by the end of the last day
+     */
+    public DailyBalanceAccumulator(long[] dayStarts) {
+        this.dayStarts = dayStarts;
+    }
+
+    /**
+     * Adds the balance of an account after a transaction
+     * @param accountId the account
+     * @param epochSecond when the transaction happened
+     * @param balance the balance after the transaction
+     * @return this accumulator
+     */
+    public DailyBalanceAccumulator add(String accountId, long epochSecond, BigDecimal balance) {
+        if (epochSecond >= dayStarts[dayStarts.length - 1]) {
+            return this;
+        }
+        int index = accounts.indexOf(accountId);
+        if (index == days.length) {
+            days = Arrays.copyOf(days, days.length * 2);
+        }
+        if (days[index] == null) {
+            days[index] = new AccountDays(dayStarts.length - 1);
+        }
+        long minorUnits = AmountAccumulator.toMinorUnits(balance);
+        BigDecimal exactBalance = null;
+        if (minorUnits == AmountAccumulator.NOT_REPRESENTABLE) {
+            // Más de dos decimales se redondean al céntimo; lo que no cabe en un long se guarda exacto
+            exactBalance = balance.setScale(AmountAccumulator.SCALE, RoundingMode.HALF_UP);
+            minorUnits = AmountAccumulator.toMinorUnits(exactBalance);
+            if (minorUnits == AmountAccumulator.NOT_REPRESENTABLE) {
+                exact = true;
+            } else {
+                exactBalance = null;
+            }
+        }
+        days[index].add(dayOf(epochSecond), epochSecond, minorUnits, exactBalance);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return accounts.size() == 0;
+    }
+
+    /**
+     * Account of the first balance added
+     */
+    public String getFirstAccountId() {
+        return isEmpty() ? null : accounts.accountId(0);
+    }
+
+    /**
+     * Average of the customer's total end-of-day balance over the days of the period started
+     * before the given instant, counted from the first day any account has a known balance
+     * @param nowEpochSecond the current instant
+     * @return the average, scale 2 rounded HALF_UP, or null when no day has a known balance
+     */
+    public BigDecimal dailyAverage(long nowEpochSecond) {
+        return dailyAverages(new int[]{0, dayStarts.length - 1}, nowEpochSecond)[0];
+    }
+
+    /**
+     * The customer's total end-of-day balance of every day counted by {@link #dailyAverage}
+     * @param nowEpochSecond the current instant
+     * @return the daily totals, whose average, min and max are those of the period
+     */
+    public AmountAccumulator dailyTotals(long nowEpochSecond) {
+        return dailyTotals(new int[]{0, dayStarts.length - 1}, nowEpochSecond)[0];
+    }
+
+    /**
+     * Average of the customer's total end-of-day balance over consecutive ranges of days,
+     * each counted like {@link #dailyAverage}, from a single carry-forward over the whole period
+     * @param rangeStarts first day of every range, followed by the end of the last one
+     * @param nowEpochSecond the current instant
+     * @return the average of every range, null for ranges without a known balance
+     */
+    public BigDecimal[] dailyAverages(int[] rangeStarts, long nowEpochSecond) {
+        AmountAccumulator[] totals = dailyTotals(rangeStarts, nowEpochSecond);
+        BigDecimal[] averages = new BigDecimal[totals.length];
+        for (int range = 0; range < averages.length; range++) {
+            averages[range] = totals[range].isEmpty() ? null : totals[range].average();
+        }
+        return averages;
+    }
+
+    private AmountAccumulator[] dailyTotals(int[] rangeStarts, long nowEpochSecond) {
+        int elapsed = elapsedDays(nowEpochSecond);
+        int firstKnownDay = elapsed;
+        for (int index = 0; index < accounts.size(); index++) {
+            firstKnownDay = Math.min(firstKnownDay, days[index].firstKnownDay(elapsed));
+        }
+
+        long[] totals = exact ? null : new long[elapsed];
+        for (int index = 0; index < accounts.size() && totals != null; index++) {
+            if (!days[index].addTo(totals, null, null, elapsed)) {
+                totals = null;
+            }
+        }
+        BigDecimal[] exactTotals = totals == null ? exactTotals(elapsed) : null;
+
+        AmountAccumulator[] rangeTotals = new AmountAccumulator[rangeStarts.length - 1];
+        for (int range = 0; range < rangeTotals.length; range++) {
+            rangeTotals[range] = new AmountAccumulator();
+            int end = Math.min(rangeStarts[range + 1], elapsed);
+            for (int day = Math.max(rangeStarts[range], firstKnownDay); day < end; day++) {
+                if (totals != null) {
+                    rangeTotals[range].addMinorUnits(totals[day]);
+                } else {
+                    rangeTotals[range].add(exactTotals[day]);
+                }
+            }
+        }
+        return rangeTotals;
+    }
+
+    /**
+     * Daily average balance of every account, in order of first appearance, over the days
+     * of the period started before the given instant, counted from the account's first known balance
+     * @param nowEpochSecond the current instant
+     * @return the averages, scale 2 rounded HALF_UP, of the accounts with a known balance
+     */
+    public Map<String, BigDecimal> accountDailyAverages(long nowEpochSecond) {
+        int elapsed = elapsedDays(nowEpochSecond);
+        Map<String, BigDecimal> averages = new LinkedHashMap<>();
+        for (int index = 0; index < accounts.size(); index++) {
+            AmountAccumulator average = new AmountAccumulator();
+            days[index].addTo(null, null, average, elapsed);
+            if (!average.isEmpty()) {
+                averages.put(accounts.accountId(index), average.average());
+            }
+        }
+        return averages;
+    }
+
+    /**
+     * Daily totals summed as BigDecimals, when some balance or total does not fit in a long of cents
+     */
+    private BigDecimal[] exactTotals(int elapsed) {
+        BigDecimal[] totals = new BigDecimal[elapsed];
+        Arrays.fill(totals, BigDecimal.ZERO);
+        for (int index = 0; index < accounts.size(); index++) {
+            days[index].addTo(null, totals, null, elapsed);
+        }
+        return totals;
+    }
+
+    private int elapsedDays(long nowEpochSecond) {
+        int days = dayStarts.length - 1;
+        if (nowEpochSecond >= dayStarts[days]) {
+            return days;
+        }
+        return nowEpochSecond < dayStarts[0] ? 0 : dayOf(nowEpochSecond) + 1;
+    }
+
+    /**
+     * Day of the period, or -1 before it
+     */
+    private int dayOf(long epochSecond) {
+        int index = Arrays.binarySearch(dayStarts, epochSecond);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Closing balance per day of a single account.
+     */
+    private static final class AccountDays {
+
+        private final long[] closing;
+        private final long[] closingAt;
+        /** Closing balances that do not fit in a long of cents; only allocated once one appears. */
+        private BigDecimal[] exactClosing;
+        private long opening;
+        private BigDecimal exactOpening;
+        private long openingAt = Long.MIN_VALUE;
+        private boolean hasOpening;
+
+        private AccountDays(int days) {
+            this.closing = new long[days];
+            this.closingAt = new long[days];
+            Arrays.fill(closingAt, Long.MIN_VALUE);
+        }
+
+        private void add(int day, long epochSecond, long balance, BigDecimal exactBalance) {
+            // Con la misma marca de tiempo gana la transacción que llega después
+            if (day < 0) {
+                if (epochSecond >= openingAt) {
+                    opening = balance;
+                    exactOpening = exactBalance;
+                    openingAt = epochSecond;
+                    hasOpening = true;
+                }
+            } else if (epochSecond >= closingAt[day]) {
+                closing[day] = balance;
+                closingAt[day] = epochSecond;
+                if (exactBalance != null && exactClosing == null) {
+                    exactClosing = new BigDecimal[closing.length];
+                }
+                if (exactClosing != null) {
+                    exactClosing[day] = exactBalance;
+                }
+            }
+        }
+
+        /**
+         * First of the given days with a known balance, or days
+         */
+        private int firstKnownDay(int days) {
+            if (hasOpening) {
+                return 0;
+            }
+            for (int day = 0; day < days; day++) {
+                if (closingAt[day] != Long.MIN_VALUE) {
+                    return day;
+                }
+            }
+            return days;
+        }
+
+        /**
+         * Adds the carried-forward balance of every known day to whichever of the long totals,
+         * the exact totals and the average are given
+         * @return false when a long total would overflow, or a balance does not fit in one
+         */
+        private boolean addTo(long[] totals, BigDecimal[] exactTotals, AmountAccumulator average, int days) {
+            boolean known = hasOpening;
+            long balance = opening;
+            BigDecimal exactBalance = exactOpening;
+            for (int day = 0; day < days; day++) {
+                if (closingAt[day] != Long.MIN_VALUE) {
+                    balance = closing[day];
+                    exactBalance = exactClosing != null ? exactClosing[day] : null;
+                    known = true;
+                }
+                if (!known) {
+                    continue;
+                }
+                if (totals != null) {
+                    long total = totals[day] + balance;
+                    if (exactBalance != null || ((totals[day] ^ total) & (balance ^ total)) < 0) {
+                        return false;
+                    }
+                    totals[day] = total;
+                }
+                if (exactTotals != null) {
+                    exactTotals[day] = exactTotals[day].add(exactBalance != null
+                            ? exactBalance
+                            : BigDecimal.valueOf(balance, AmountAccumulator.SCALE));
+                }
+                if (average != null) {
+                    if (exactBalance != null) {
+                        average.add(exactBalance);
+                    } else {
+                        average.addMinorUnits(balance);
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.report.service.aggregation;
+
+import com.bank.report.model.enums.TransactionStatus;
+import com.bank.report.model.enums.TransactionType;
+import java.math.BigDecimal;
+
+/**
+ * Every metric of a monthly statement, built in a single pass over the history:
+ * the customer's total end-of-day balance of every day, with its average, min and max
+ * (through a {@link DailyBalanceAccumulator}), commissions, and counts and completed
+ * totals per transaction type.
+ * Per-type state lives in arrays indexed by the {@link TransactionType} and
+ * {@link TransactionStatus} ordinals.
+ * Not thread safe: one accumulator per subscription.
+ */
+public final class StatementAccumulator {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final long periodStart;
+    private final long periodEnd;
+    private final DailyBalanceAccumulator balances;
+    private final AmountAccumulator commissions = new AmountAccumulator();
+    private final long[][] counts = new long[TYPES.length][STATUSES.length];
+    private final AmountAccumulator[] completedAmounts = new AmountAccumulator[TYPES.length];
+    private long transactions;
+
+    /**
+     * @param dayStarts epoch second at which every day of the period starts, followed by the period end
+     */
+    public StatementAccumulator(long[] dayStarts) {
+        this.periodStart = dayStarts[0];
+        this.periodEnd = dayStarts[dayStarts.length - 1];
+        this.balances = new DailyBalanceAccumulator(dayStarts);
+        for (int type = 0; type < TYPES.length; type++) {
+            completedAmounts[type] = new AmountAccumulator();
+        }
+    }
+
+    /**
+     * Adds the balance of an account after a transaction, before or during the period
+     */
+    public StatementAccumulator addBalance(String accountId, long epochSecond, BigDecimal balance) {
+        balances.add(accountId, epochSecond, balance);
+        return this;
+    }
+
+    /**
+     * Adds a transaction, ignored outside the period
+     */
+    public StatementAccumulator addTransaction(long epochSecond, TransactionType type, TransactionStatus status,
+                                               BigDecimal amount, BigDecimal commission) {
+        if (!inPeriod(epochSecond)) {
+            return this;
+        }
+        transactions++;
+        if (type != null && status != null) {
+            counts[type.ordinal()][status.ordinal()]++;
+            if (status == TransactionStatus.COMPLETED && amount != null) {
+                completedAmounts[type.ordinal()].add(amount);
+            }
+        }
+        if (commission != null && commission.signum() > 0) {
+            commissions.add(commission);
+        }
+        return this;
+    }
+
+    /**
+     * Whether the period had no transactions
+     */
+    public boolean isEmpty() {
+        return transactions == 0;
+    }
+
+    /**
+     * The customer's total end-of-day balance of every day of the period started before the
+     * given instant, from the first day any account has a known balance
+     */
+    public AmountAccumulator dailyTotals(long nowEpochSecond) {
+        return balances.dailyTotals(nowEpochSecond);
+    }
+
+    public AmountAccumulator getCommissions() {
+        return commissions;
+    }
+
+    public long count(TransactionType type) {
+        long count = 0;
+        for (long statusCount : counts[type.ordinal()]) {
+            count += statusCount;
+        }
+        return count;
+    }
+
+    public long count(TransactionType type, TransactionStatus status) {
+        return counts[type.ordinal()][status.ordinal()];
+    }
+
+    /**
+     * Sum of the amounts of the completed transactions of the type
+     */
+    public BigDecimal completedTotal(TransactionType type) {
+        return completedAmounts[type.ordinal()].sum();
+    }
+
+    private boolean inPeriod(long epochSecond) {
+        return epochSecond >= periodStart && epochSecond < periodEnd;
+    }
+}
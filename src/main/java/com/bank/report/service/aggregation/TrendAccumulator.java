@@ -0,0 +1,76 @@
+package com.bank.report.service.aggregation;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Daily average balance and average commission of consecutive periods, built in a single
+ * pass over the history: balances go to one {@link DailyBalanceAccumulator} spanning every
+ * period, commissions to one {@link AmountAccumulator} per period found by binary search.
+ * Not thread safe: one accumulator per subscription.
+ */
+public final class TrendAccumulator {
+
+    private final long[] periodStarts;
+    private final int[] periodFirstDays;
+    private final DailyBalanceAccumulator balances;
+    private final AmountAccumulator[] commissions;
+
+    /**
+     * @param dayStarts epoch second at which every day of the periods starts, followed by the end of the last one
+     * @param periodStarts epoch second at which every period starts, followed by the end of the last one
+     */
+    public TrendAccumulator(long[] dayStarts, long[] periodStarts) {
+        this.periodStarts = periodStarts;
+        this.periodFirstDays = new int[periodStarts.length];
+        for (int period = 0; period < periodStarts.length; period++) {
+            periodFirstDays[period] = Arrays.binarySearch(dayStarts, periodStarts[period]);
+            if (periodFirstDays[period] < 0) {
+                throw new IllegalArgumentException("Period boundaries must be day boundaries");
+            }
+        }
+        this.balances = new DailyBalanceAccumulator(dayStarts);
+        this.commissions = new AmountAccumulator[periodStarts.length - 1];
+        for (int period = 0; period < commissions.length; period++) {
+            commissions[period] = new AmountAccumulator();
+        }
+    }
+
+    /**
+     * Adds the balance of an account after a transaction
+     */
+    public TrendAccumulator addBalance(String accountId, long epochSecond, BigDecimal balance) {
+        balances.add(accountId, epochSecond, balance);
+        return this;
+    }
+
+    /**
+     * Adds a commission, ignored outside the periods
+     */
+    public TrendAccumulator addCommission(long epochSecond, BigDecimal commission) {
+        int index = Arrays.binarySearch(periodStarts, epochSecond);
+        int period = index >= 0 ? index : -index - 2;
+        if (period >= 0 && period < commissions.length) {
+            commissions[period].add(commission);
+        }
+        return this;
+    }
+
+    public int periods() {
+        return commissions.length;
+    }
+
+    /**
+     * Daily average balance of every period, null for periods without a known balance
+     */
+    public BigDecimal[] dailyAverages(long nowEpochSecond) {
+        return balances.dailyAverages(periodFirstDays, nowEpochSecond);
+    }
+
+    /**
+     * Average commission of a period, null when it has none
+     */
+    public BigDecimal commissionAverage(int period) {
+        return commissions[period].isEmpty() ? null : commissions[period].average();
+    }
+}
@@ -0,0 +1,109 @@
+package com.bank.report.service.query;
+
+import com.bank.report.client.TransactionFilter;
+import com.bank.report.model.dto.TransactionResponse;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ReportQuery} compiled into epoch-second intervals and enum bit masks,
+ * so testing a transaction allocates nothing.
+ * Transactions without createdAt are matched through their period field when the
+ * query only restricts periods.
+ */
+public final class ReportFilter implements Predicate<TransactionResponse> {
+
+    /** Interval starts (inclusive) and ends (exclusive), sorted and disjoint; null when time is not filtered. */
+    private final long[] starts;
+    private final long[] ends;
+
+    /** Sorted yyyyMM keys of the queried periods; null when the period field cannot be used. */
+    private final int[] periodKeys;
+
+    private final int typeMask;
+    private final int statusMask;
+    private final boolean withCommission;
+    private final ZoneOffset timestampOffset;
+    private final TransactionFilter downstreamFilter;
+
+    ReportFilter(long[] starts, long[] ends, int[] periodKeys, int typeMask, int statusMask,
+                 boolean withCommission, ZoneOffset timestampOffset, TransactionFilter downstreamFilter) {
+        this.starts = starts;
+        this.ends = ends;
+        this.periodKeys = periodKeys;
+        this.typeMask = typeMask;
+        this.statusMask = statusMask;
+        this.withCommission = withCommission;
+        this.timestampOffset = timestampOffset;
+        this.downstreamFilter = downstreamFilter;
+    }
+
+    /**
+     * Filter sent to the Transaction Service, as narrow as it can express
+     */
+    public TransactionFilter getDownstreamFilter() {
+        return downstreamFilter;
+    }
+
+    @Override
+    public boolean test(TransactionResponse transaction) {
+        if (statusMask != 0 && !inMask(statusMask, transaction.getStatus())) {
+            return false;
+        }
+        if (typeMask != 0 && !inMask(typeMask, transaction.getTransactionType())) {
+            return false;
+        }
+        if (withCommission && (transaction.getCommission() == null || transaction.getCommission().signum() <= 0)) {
+            return false;
+        }
+        return starts == null || matchesTime(transaction);
+    }
+
+    /**
+     * Index of the interval containing the epoch second, or -1
+     */
+    int intervalOf(long epochSecond) {
+        int index = Arrays.binarySearch(starts, epochSecond);
+        if (index >= 0) {
+            return index;
+        }
+        int previous = -index - 2;
+        return previous >= 0 && epochSecond < ends[previous] ? previous : -1;
+    }
+
+    private boolean matchesTime(TransactionResponse transaction) {
+        LocalDateTime createdAt = transaction.getCreatedAt();
+        if (createdAt != null) {
+            return intervalOf(createdAt.toEpochSecond(timestampOffset)) >= 0;
+        }
+        if (periodKeys == null) {
+            return false;
+        }
+        int key = periodKey(transaction.getPeriod());
+        return key >= 0 && Arrays.binarySearch(periodKeys, key) >= 0;
+    }
+
+    private static boolean inMask(int mask, Enum<?> value) {
+        return value != null && (mask & (1 << value.ordinal())) != 0;
+    }
+
+    /**
+     * yyyyMM as an int, or -1 when the text is not six digits
+     */
+    static int periodKey(CharSequence period) {
+        if (period == null || period.length() != 6) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < 6; i++) {
+            char c = period.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+}
@@ -0,0 +1,205 @@
+package com.bank.report.service.query;
+
+import com.bank.report.client.TransactionFilter;
+import com.bank.report.config.ReportProperties;
+import com.bank.report.exception.BusinessRuleException;
+import com.bank.report.model.enums.TransactionStatus;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compiles report queries into {@link ReportFilter}s. Periods and days are resolved to
+ * epoch boundaries in the configured report zone; createdAt values are read with the
+ * configured timestamp offset.
+ */
+@Component
+@EnableConfigurationProperties(ReportProperties.class)
+public class ReportFilterCompiler {
+
+    private static final DateTimeFormatter PERIOD_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final ReportProperties properties;
+
+    public ReportFilterCompiler(ReportProperties properties) {
+        this.properties = properties;
+    }
+
+    public ZoneId getZone() {
+        return properties.getZone();
+    }
+
+    /**
+     * Epoch second of a createdAt value
+     */
+    public long epochSecond(LocalDateTime createdAt) {
+        return createdAt.toEpochSecond(properties.getTimestampOffset());
+    }
+
+    /**
+     * Epoch second at which every day of the month starts in the report zone,
+     * followed by the start of the next month
+     */
+    public long[] dayStarts(YearMonth month) {
+        return dayStarts(month, month);
+    }
+
+    /**
+     * Epoch second at which every day from the first to the last month starts in the
+     * report zone, followed by the start of the month after the last
+     */
+    public long[] dayStarts(YearMonth first, YearMonth last) {
+        ZoneId zone = properties.getZone();
+        LocalDate start = first.atDay(1);
+        long[] starts = new long[(int) ChronoUnit.DAYS.between(start, last.plusMonths(1).atDay(1)) + 1];
+        for (int day = 0; day < starts.length; day++) {
+            starts[day] = start.plusDays(day).atStartOfDay(zone).toEpochSecond();
+        }
+        return starts;
+    }
+
+    /**
+     * Epoch second at which every month from the first to the last starts in the
+     * report zone, followed by the start of the month after the last
+     */
+    public long[] monthStarts(YearMonth first, YearMonth last) {
+        ZoneId zone = properties.getZone();
+        long[] starts = new long[(int) ChronoUnit.MONTHS.between(first, last) + 2];
+        for (int month = 0; month < starts.length; month++) {
+            starts[month] = first.plusMonths(month).atDay(1).atStartOfDay(zone).toEpochSecond();
+        }
+        return starts;
+    }
+
+    /**
+     * Parses a period in format yyyyMM
+     * @throws BusinessRuleException when the period is not a valid month
+     */
+    public static YearMonth parsePeriod(String period) {
+        try {
+            return YearMonth.parse(period, PERIOD_FORMATTER);
+        } catch (DateTimeParseException ex) {
+            throw new BusinessRuleException("Invalid period " + period + ", expected format yyyyMM");
+        }
+    }
+
+    /**
+     * Compiles a query
+     * @throws BusinessRuleException when a period or the date range is invalid
+     */
+    public ReportFilter compile(ReportQuery query) {
+        ZoneId zone = properties.getZone();
+        List<long[]> intervals = new ArrayList<>();
+        int[] periodKeys = null;
+
+        if (!query.getPeriods().isEmpty()) {
+            periodKeys = new int[query.getPeriods().size()];
+            int i = 0;
+            for (String period : query.getPeriods()) {
+                YearMonth month = parsePeriod(period);
+                periodKeys[i++] = month.getYear() * 100 + month.getMonthValue();
+                intervals.add(new long[]{
+                        month.atDay(1).atStartOfDay(zone).toEpochSecond(),
+                        month.plusMonths(1).atDay(1).atStartOfDay(zone).toEpochSecond()});
+            }
+            Arrays.sort(periodKeys);
+        }
+
+        if (query.getFrom() != null || query.getTo() != null) {
+            if (query.getFrom() != null && query.getTo() != null && query.getTo().isBefore(query.getFrom())) {
+                throw new BusinessRuleException("Invalid date range: " + query.getFrom() + " is after " + query.getTo());
+            }
+            long from = query.getFrom() != null ? query.getFrom().atStartOfDay(zone).toEpochSecond() : Long.MIN_VALUE;
+            long to = query.getTo() != null ? query.getTo().plusDays(1).atStartOfDay(zone).toEpochSecond() : Long.MAX_VALUE;
+            intervals = intervals.isEmpty() ? List.of(new long[]{from, to}) : intersect(intervals, from, to);
+            // Sin createdAt no se puede saber si la transacción cae dentro del rango
+            periodKeys = null;
+        }
+
+        long[] starts = null;
+        long[] ends = null;
+        boolean timeFiltered = !query.getPeriods().isEmpty() || query.getFrom() != null || query.getTo() != null;
+        if (timeFiltered) {
+            List<long[]> merged = merge(intervals);
+            starts = new long[merged.size()];
+            ends = new long[merged.size()];
+            for (int i = 0; i < merged.size(); i++) {
+                starts[i] = merged.get(i)[0];
+                ends[i] = merged.get(i)[1];
+            }
+        }
+
+        return new ReportFilter(starts, ends, periodKeys,
+                mask(query.getTypes()), mask(query.getStatuses()), query.isWithCommission(),
+                properties.getTimestampOffset(), downstreamFilter(query, starts, ends));
+    }
+
+    /**
+     * A single period is pushed down as is when the report calendar matches the createdAt
+     * offset; anything else as the from/to range covering every interval
+     */
+    private TransactionFilter downstreamFilter(ReportQuery query, long[] starts, long[] ends) {
+        TransactionStatus status = query.getStatuses().size() == 1 ? query.getStatuses().iterator().next() : null;
+        TransactionFilter.TransactionFilterBuilder filter = TransactionFilter.builder().status(status);
+
+        boolean sameCalendar = properties.getZone().normalized().equals(properties.getTimestampOffset());
+        if (sameCalendar && query.getPeriods().size() == 1 && query.getFrom() == null && query.getTo() == null) {
+            return filter.period(query.getPeriods().iterator().next()).build();
+        }
+        if (starts != null && starts.length > 0) {
+            if (starts[0] != Long.MIN_VALUE) {
+                filter.from(LocalDateTime.ofEpochSecond(starts[0], 0, properties.getTimestampOffset()));
+            }
+            if (ends[ends.length - 1] != Long.MAX_VALUE) {
+                filter.to(LocalDateTime.ofEpochSecond(ends[ends.length - 1], 0, properties.getTimestampOffset()));
+            }
+        }
+        return filter.build();
+    }
+
+    private static List<long[]> intersect(List<long[]> intervals, long from, long to) {
+        List<long[]> result = new ArrayList<>(intervals.size());
+        for (long[] interval : intervals) {
+            long start = Math.max(interval[0], from);
+            long end = Math.min(interval[1], to);
+            if (start < end) {
+                result.add(new long[]{start, end});
+            }
+        }
+        return result;
+    }
+
+    private static List<long[]> merge(List<long[]> intervals) {
+        List<long[]> sorted = new ArrayList<>(intervals);
+        sorted.sort(Comparator.comparingLong(interval -> interval[0]));
+        List<long[]> merged = new ArrayList<>(sorted.size());
+        for (long[] interval : sorted) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && interval[0] <= last[1]) {
+                last[1] = Math.max(last[1], interval[1]);
+            } else {
+                merged.add(new long[]{interval[0], interval[1]});
+            }
+        }
+        return merged;
+    }
+
+    private static int mask(Set<? extends Enum<?>> values) {
+        int mask = 0;
+        for (Enum<?> value : values) {
+            mask |= 1 << value.ordinal();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bank.report.service.query;
+
+import com.bank.report.model.enums.TransactionStatus;
+import com.bank.report.model.enums.TransactionType;
+import java.time.LocalDate;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+/**
+ * Transactions a report is computed over. Every field is optional and they are combined
+ * with AND; within periods, types and statuses any value matches.
+ * Compiled once per request by {@link ReportFilterCompiler}.
+ */
+@Value
+@Builder
+public class ReportQuery {
+
+    /** Periods in format yyyyMM. */
+    @Singular("period")
+    Set<String> periods;
+
+    /** First day included. */
+    LocalDate from;
+
+    /** Last day included. */
+    LocalDate to;
+
+    @Singular("type")
+    Set<TransactionType> types;
+
+    @Singular("status")
+    Set<TransactionStatus> statuses;
+
+    /** Only transactions with a positive commission. */
+    boolean withCommission;
+
+    public static ReportQuery forPeriod(String period) {
+        return ReportQuery.builder().period(period).build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.bank.report.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bank.report.client.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class NearCacheTest {
+
+	private final NearCacheRegistry registry = new NearCacheRegistry(new NearCacheProperties(), new SimpleMeterRegistry());
+
+	@Test
+	void loadsOnSubscriptionOnly() {
+		AtomicInteger loads = new AtomicInteger();
+		NearCache<String> cache = registry.create("accounts",
+				customerId -> Mono.fromCallable(() -> customerId + "-" + loads.incrementAndGet()));
+
+		Mono<String> value = cache.get("C1");
+		assertThat(loads).hasValue(0);
+
+		StepVerifier.create(value).expectNext("C1-1").verifyComplete();
+		StepVerifier.create(cache.get("C1")).expectNext("C1-1").verifyComplete();
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void loaderSeesSubscriberContext() {
+		NearCache<String> cache = registry.create("credits",
+				customerId -> Mono.deferContextual(context -> Mono.just(customerId + ":" + context.getOrDefault("deadline", "none"))));
+
+		StepVerifier.create(cache.get("C1").contextWrite(context -> context.put("deadline", "250ms")))
+				.expectNext("C1:250ms")
+				.verifyComplete();
+	}
+
+	@Test
+	void failedLoadsAreNotCached() {
+		AtomicInteger loads = new AtomicInteger();
+		NearCache<String> cache = registry.create("debits", customerId -> loads.incrementAndGet() == 1
+				? Mono.error(new IllegalStateException("down"))
+				: Mono.just(customerId));
+
+		StepVerifier.create(cache.get("C1")).expectError(IllegalStateException.class).verify();
+		StepVerifier.create(cache.get("C1")).expectNext("C1").verifyComplete();
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void shortDeadlineOfOneSubscriberDoesNotFailTheSharedLoad() {
+		AtomicInteger loads = new AtomicInteger();
+		NearCache<String> cache = registry.create("accounts", customerId -> Deadline.limit(
+				Mono.delay(Duration.ofMillis(200)).map(tick -> customerId + "-" + loads.incrementAndGet())));
+
+		StepVerifier.create(cache.get("C1").contextWrite(Deadline.fromRequest(MockServerHttpRequest.get("/")
+						.header(Deadline.TIMEOUT_HEADER, "20").build())))
+				.expectError(TimeoutException.class)
+				.verify(Duration.ofSeconds(5));
+		// Joins the load the first subscriber started and gave up on
+		StepVerifier.create(cache.get("C1"))
+				.expectNext("C1-1")
+				.verifyComplete();
+		assertThat(loads).hasValue(1);
+	}
+}
@@ -0,0 +1,227 @@
+package com.bank.report.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.condition.EmbeddedKafkaCondition;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import reactor.core.publisher.Mono;
+
+@EmbeddedKafka(partitions = 1, topics = {
+		ProductChangeEventListenerTest.EVICT_TOPIC,
+		ProductChangeEventListenerTest.KEY_TOPIC,
+		ProductChangeEventListenerTest.REFRESH_TOPIC,
+		ProductChangeEventListenerTest.BATCH_TOPIC,
+		ProductChangeEventListenerTest.BACKPRESSURE_TOPIC})
+class ProductChangeEventListenerTest {
+
+	static final String EVICT_TOPIC = "account-events-evict";
+	static final String KEY_TOPIC = "account-events-key";
+	static final String REFRESH_TOPIC = "account-events-refresh";
+	static final String BATCH_TOPIC = "account-events-batch";
+	static final String BACKPRESSURE_TOPIC = "account-events-backpressure";
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final NearCacheProperties properties = new NearCacheProperties();
+	private KafkaProducer<String, String> producer;
+	private ProductChangeEventListener listener;
+
+	@BeforeEach
+	void setUp() {
+		EmbeddedKafkaBroker broker = EmbeddedKafkaCondition.getBroker();
+		Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+		producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		producer = new KafkaProducer<>(producerProps);
+
+		NearCacheProperties.Invalidation invalidation = properties.getInvalidation();
+		invalidation.setEnabled(true);
+		invalidation.setBootstrapServers(broker.getBrokersAsString());
+		invalidation.setAutoOffsetReset("earliest");
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (listener != null) {
+			listener.destroy();
+		}
+		producer.close();
+	}
+
+	@Test
+	void evictsChangedCustomer() {
+		NearCacheRegistry registry = new NearCacheRegistry(properties, meterRegistry);
+		AtomicInteger loads = new AtomicInteger();
+		NearCache<String> accounts = registry.create("accounts",
+				customerId -> Mono.fromCallable(() -> customerId + "-" + loads.incrementAndGet()));
+		assertThat(accounts.get("C1").block()).isEqualTo("C1-1");
+		assertThat(accounts.get("C2").block()).isEqualTo("C2-2");
+
+		start(registry, EVICT_TOPIC);
+		send(EVICT_TOPIC, "ignored", "{\"customerId\":\"C1\",\"type\":\"ACCOUNT_UPDATED\"}");
+
+		await().atMost(TIMEOUT).until(() -> !"C1-1".equals(accounts.get("C1").block()));
+		assertThat(accounts.get("C2").block()).isEqualTo("C2-2");
+		assertThat(meterRegistry.get("report.cache.invalidation.applied").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void fallsBackToRecordKey() {
+		NearCacheRegistry registry = new NearCacheRegistry(properties, meterRegistry);
+		AtomicInteger loads = new AtomicInteger();
+		NearCache<String> accounts = registry.create("accounts",
+				customerId -> Mono.fromCallable(() -> customerId + "-" + loads.incrementAndGet()));
+		assertThat(accounts.get("C3").block()).isEqualTo("C3-1");
+
+		start(registry, KEY_TOPIC);
+		send(KEY_TOPIC, "C3", "not json");
+
+		await().atMost(TIMEOUT).until(() -> !"C3-1".equals(accounts.get("C3").block()));
+	}
+
+	@Test
+	void refreshesChangedCustomerInTheBackground() {
+		properties.getInvalidation().setMode(NearCacheProperties.Mode.REFRESH);
+		NearCacheRegistry registry = new NearCacheRegistry(properties, meterRegistry);
+		AtomicInteger loads = new AtomicInteger();
+		NearCache<String> accounts = registry.create("accounts",
+				customerId -> Mono.fromCallable(() -> customerId + "-" + loads.incrementAndGet()));
+		accounts.get("C1").block();
+
+		start(registry, REFRESH_TOPIC);
+		send(REFRESH_TOPIC, "C1", "{\"customerId\":\"C1\"}");
+
+		// Reloaded without anyone asking for it
+		await().atMost(TIMEOUT).until(() -> loads.get() == 2);
+		assertThat(accounts.get("C1").block()).isEqualTo("C1-2");
+	}
+
+	@Test
+	void deduplicatesEventsOfABatch() {
+		RecordingRegistry registry = new RecordingRegistry(properties);
+		for (int i = 0; i < 200; i++) {
+			send(BATCH_TOPIC, null, "{\"customerId\":\"C" + (i % 2) + "\"}");
+		}
+		send(BATCH_TOPIC, null, "{\"customerId\":\"LAST\"}");
+
+		start(registry, BATCH_TOPIC);
+
+		await().atMost(TIMEOUT).until(() -> registry.evicted().contains("LAST"));
+		assertThat(registry.evicted()).contains("C0", "C1");
+		// 201 events already in the topic arrive in a few batches, each collapsed to its distinct customers
+		assertThat(meterRegistry.get("report.cache.invalidation.applied").counter().count()).isLessThan(10);
+	}
+
+	@Test
+	void pullsOnlyAsFastAsBatchesAreAppliedAndPublishesLag() throws InterruptedException {
+		properties.getInvalidation().setBatchSize(5);
+		CountDownLatch firstEviction = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingRegistry registry = new RecordingRegistry(properties) {
+			@Override
+			public void evict(String name, String customerId) {
+				super.evict(name, customerId);
+				if (firstEviction.getCount() > 0) {
+					firstEviction.countDown();
+					await(release);
+				}
+			}
+		};
+		int events = 1_000;
+		for (int i = 0; i < events; i++) {
+			send(BACKPRESSURE_TOPIC, null, "{\"customerId\":\"C" + i + "\"}");
+		}
+		producer.flush();
+
+		start(registry, BACKPRESSURE_TOPIC);
+
+		assertThat(firstEviction.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(500);
+		// Batches are applied one at a time: nothing else runs while the first one is stuck
+		assertThat(registry.evicted()).hasSize(1);
+		release.countDown();
+
+		await().atMost(TIMEOUT).until(() -> registry.evicted().size() == events);
+		// Right after the first batches most of the topic had not been pulled yet
+		assertThat(registry.lagSeen()).anyMatch(lag -> lag > 0);
+		await().atMost(TIMEOUT).until(() -> lag() == 0);
+	}
+
+	private void start(NearCacheRegistry registry, String topic) {
+		NearCacheProperties.Invalidation invalidation = properties.getInvalidation();
+		invalidation.setGroupId("report-" + topic);
+		invalidation.setTopics(Map.of(topic, List.of("accounts")));
+		listener = new ProductChangeEventListener(registry, properties, new ObjectMapper(), meterRegistry);
+		listener.start();
+	}
+
+	private void send(String topic, String key, String value) {
+		producer.send(new ProducerRecord<>(topic, key, value));
+		producer.flush();
+	}
+
+	private double lag() {
+		return meterRegistry.get("report.cache.invalidation.lag").gauge().value();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Registry that records the evicted customers and the lag published when each was evicted.
+	 */
+	private class RecordingRegistry extends NearCacheRegistry {
+
+		private final List<String> evicted = Collections.synchronizedList(new ArrayList<>());
+		private final List<Double> lagSeen = Collections.synchronizedList(new ArrayList<>());
+
+		private RecordingRegistry(NearCacheProperties properties) {
+			super(properties, meterRegistry);
+		}
+
+		@Override
+		public void evict(String name, String customerId) {
+			evicted.add(customerId);
+			lagSeen.add(lag());
+			super.evict(name, customerId);
+		}
+
+		private List<String> evicted() {
+			synchronized (evicted) {
+				return List.copyOf(evicted);
+			}
+		}
+
+		private List<Double> lagSeen() {
+			synchronized (lagSeen) {
+				return List.copyOf(lagSeen);
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.bank.report.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bank.report.config.DownstreamProperties;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+class AdaptiveTimeoutTest {
+
+	// The tracker re-sorts its window every 16 samples
+	private static final int WINDOW = 16;
+
+	@Test
+	void fastCallsShortenTheTimeout() {
+		AdaptiveTimeout timeout = new AdaptiveTimeout(Duration.ofSeconds(1), properties());
+
+		for (int i = 0; i < WINDOW; i++) {
+			StepVerifier.create(timeout.apply(Mono.just("ok"))).expectNext("ok").verifyComplete();
+		}
+
+		assertThat(timeout.timeout(Context.empty())).isEqualTo(Duration.ofMillis(20));
+	}
+
+	@Test
+	void timeoutsDoNotPushTheTimeoutDown() {
+		AdaptiveTimeout timeout = new AdaptiveTimeout(Duration.ofSeconds(1), properties());
+		for (int i = 0; i < WINDOW; i++) {
+			StepVerifier.create(timeout.apply(Mono.just("ok"))).expectNext("ok").verifyComplete();
+		}
+		Duration before = timeout.timeout(Context.empty());
+
+		for (int i = 0; i < 2 * WINDOW; i++) {
+			StepVerifier.create(timeout.apply(Mono.never()))
+					.expectError(TimeoutException.class)
+					.verify(Duration.ofSeconds(5));
+		}
+
+		// Every sample is now a timeout of at least 20ms, doubled by the multiplier
+		assertThat(timeout.timeout(Context.empty())).isGreaterThan(before).isGreaterThanOrEqualTo(Duration.ofMillis(40));
+	}
+
+	@Test
+	void streamTimeoutBeforeTheFirstElementIsRecorded() {
+		AdaptiveTimeout timeout = new AdaptiveTimeout(Duration.ofSeconds(1), properties());
+		for (int i = 0; i < WINDOW; i++) {
+			StepVerifier.create(timeout.apply(Flux.just("ok"))).expectNext("ok").verifyComplete();
+		}
+		Duration before = timeout.timeout(Context.empty());
+
+		for (int i = 0; i < 2 * WINDOW; i++) {
+			StepVerifier.create(timeout.apply(Flux.never()))
+					.expectError(TimeoutException.class)
+					.verify(Duration.ofSeconds(5));
+		}
+
+		assertThat(timeout.timeout(Context.empty())).isGreaterThan(before);
+	}
+
+	private static DownstreamProperties.Timeout properties() {
+		DownstreamProperties.Timeout properties = new DownstreamProperties.Timeout();
+		properties.setPercentile(0.5);
+		properties.setMultiplier(2.0);
+		properties.setMin(Duration.ofMillis(20));
+		properties.setWindowSize(WINDOW);
+		properties.setMinSamples(1);
+		return properties;
+	}
+}
@@ -0,0 +1,120 @@
+package com.bank.report.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.exception.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ReactiveBulkheadTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void rejectsAtOnceWhenTheQueueIsFull() {
+		ReactiveBulkhead bulkhead = bulkhead(1, 1, Duration.ofSeconds(5));
+		Disposable holder = bulkhead.apply(Mono.never()).subscribe();
+		Disposable queued = bulkhead.apply(Mono.never()).subscribe();
+
+		StepVerifier.create(bulkhead.apply(Mono.just("call")))
+				.expectError(BulkheadFullException.class)
+				.verify(Duration.ofMillis(500));
+
+		assertThat(rejected("full")).isEqualTo(1);
+		assertThat(gauge("report.bulkhead.waiting")).isEqualTo(1);
+		queued.dispose();
+		holder.dispose();
+		assertThat(gauge("report.bulkhead.available.permits")).isEqualTo(1);
+	}
+
+	@Test
+	void rejectsCallsThatWaitTooLong() {
+		ReactiveBulkhead bulkhead = bulkhead(1, 10, Duration.ofMillis(50));
+		Disposable holder = bulkhead.apply(Mono.never()).subscribe();
+
+		StepVerifier.create(bulkhead.apply(Mono.just("call")))
+				.expectError(BulkheadFullException.class)
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(rejected("wait-timeout")).isEqualTo(1);
+		assertThat(gauge("report.bulkhead.waiting")).isZero();
+		assertThat(gauge("report.bulkhead.available.permits")).isZero();
+		holder.dispose();
+		assertThat(gauge("report.bulkhead.available.permits")).isEqualTo(1);
+	}
+
+	@Test
+	void cancelledWaiterLeavesTheQueueWithoutTakingASlot() {
+		ReactiveBulkhead bulkhead = bulkhead(1, 10, Duration.ofSeconds(5));
+		Disposable holder = bulkhead.apply(Mono.never()).subscribe();
+		Disposable queued = bulkhead.apply(Mono.never()).subscribe();
+		assertThat(gauge("report.bulkhead.waiting")).isEqualTo(1);
+
+		queued.dispose();
+		assertThat(gauge("report.bulkhead.waiting")).isZero();
+		holder.dispose();
+
+		assertThat(gauge("report.bulkhead.available.permits")).isEqualTo(1);
+		StepVerifier.create(bulkhead.apply(Mono.just("call")))
+				.expectNext("call")
+				.verifyComplete();
+	}
+
+	@Test
+	void grantRacingACancellationNeverLosesTheSlot() {
+		ReactiveBulkhead bulkhead = bulkhead(1, 10, Duration.ofSeconds(5));
+
+		for (int i = 0; i < 1_000; i++) {
+			Disposable holder = bulkhead.apply(Mono.never()).subscribe();
+			Disposable queued = bulkhead.apply(Mono.never()).subscribe();
+
+			CompletableFuture.allOf(CompletableFuture.runAsync(holder::dispose),
+					CompletableFuture.runAsync(queued::dispose)).join();
+
+			assertThat(gauge("report.bulkhead.waiting")).isZero();
+			assertThat(gauge("report.bulkhead.available.permits")).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void grantRacingTheWaitTimeoutNeverLosesTheSlot() throws Exception {
+		ReactiveBulkhead bulkhead = bulkhead(1, 10, Duration.ofMillis(1));
+
+		for (int i = 0; i < 200; i++) {
+			Disposable holder = bulkhead.apply(Mono.never()).subscribe();
+			CompletableFuture<String> queued = bulkhead.apply(Mono.just("call"))
+					.onErrorResume(BulkheadFullException.class, error -> Mono.just("rejected"))
+					.toFuture();
+
+			Thread.sleep(1);
+			holder.dispose();
+
+			assertThat(queued.get()).isIn("call", "rejected");
+			assertThat(gauge("report.bulkhead.waiting")).isZero();
+			assertThat(gauge("report.bulkhead.available.permits")).isEqualTo(1);
+		}
+	}
+
+	private ReactiveBulkhead bulkhead(int maxConcurrentCalls, int maxWaitingCalls, Duration maxWait) {
+		DownstreamProperties.Bulkhead properties = new DownstreamProperties.Bulkhead();
+		properties.setMaxConcurrentCalls(maxConcurrentCalls);
+		properties.setMaxWaitingCalls(maxWaitingCalls);
+		properties.setMaxWait(maxWait);
+		return new ReactiveBulkhead("transaction", properties, meterRegistry);
+	}
+
+	private double gauge(String name) {
+		return meterRegistry.get(name).tag("client", "transaction").gauge().value();
+	}
+
+	private double rejected(String reason) {
+		return meterRegistry.get("report.bulkhead.rejected").tag("client", "transaction").tag("reason", reason)
+				.counter().count();
+	}
+}
@@ -0,0 +1,49 @@
+package com.bank.report.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class RequestCoalescerTest {
+
+	private final RequestCoalescer coalescer = new RequestCoalescer(new SimpleMeterRegistry());
+
+	@Test
+	void sharedCallIgnoresTheDeadlineOfTheFirstCaller() {
+		AtomicInteger calls = new AtomicInteger();
+		Mono<String> call = coalescer.coalesce("getAccounts", "C1", () -> Deadline.limit(
+				Mono.delay(Duration.ofMillis(200)).map(tick -> "accounts-" + calls.incrementAndGet())));
+		Mono<String> joined = coalescer.coalesce("getAccounts", "C1", () -> Mono.just("not shared"));
+
+		StepVerifier.create(call.contextWrite(Deadline.fromRequest(MockServerHttpRequest.get("/")
+						.header(Deadline.TIMEOUT_HEADER, "20").build())))
+				.expectError(TimeoutException.class)
+				.verify(Duration.ofSeconds(5));
+		StepVerifier.create(joined)
+				.expectNext("accounts-1")
+				.verifyComplete();
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void joinedCallerStillHonoursItsOwnDeadline() {
+		Mono<String> call = coalescer.coalesce("getAccounts", "C2",
+				() -> Mono.delay(Duration.ofMillis(200)).thenReturn("accounts"));
+		Mono<String> joined = coalescer.coalesce("getAccounts", "C2", () -> Mono.just("not shared"));
+
+		StepVerifier.create(call).expectSubscription().then(() -> StepVerifier.create(
+						joined.contextWrite(Deadline.fromRequest(MockServerHttpRequest.get("/")
+								.header(Deadline.TIMEOUT_HEADER, "20").build())))
+						.expectError(TimeoutException.class)
+						.verify(Duration.ofSeconds(5)))
+				.expectNext("accounts")
+				.verifyComplete();
+	}
+}
@@ -0,0 +1,75 @@
+package com.bank.report.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bank.report.config.DownstreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class RequestHedgerTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void countsHedgeThatAnswers() {
+		RequestHedger hedger = hedger(Duration.ofMillis(20));
+
+		StepVerifier.create(hedger.hedge(attempts(Flux.never(), Flux.just("hedge"))))
+				.expectNext("hedge")
+				.verifyComplete();
+
+		assertThat(counter("report.hedge.fired")).isEqualTo(1);
+		assertThat(counter("report.hedge.won")).isEqualTo(1);
+	}
+
+	@Test
+	void hedgeFailingFirstIsNotAWin() {
+		RequestHedger hedger = hedger(Duration.ofMillis(20));
+
+		StepVerifier.create(hedger.hedge(attempts(Flux.never(), Flux.error(new IllegalStateException("down")))))
+				.expectError(IllegalStateException.class)
+				.verify(Duration.ofSeconds(5));
+
+		assertThat(counter("report.hedge.fired")).isEqualTo(1);
+		assertThat(counter("report.hedge.won")).isZero();
+	}
+
+	@Test
+	void cancelledPrimaryStillRaisesTheDelay() {
+		RequestHedger hedger = hedger(Duration.ofMillis(100));
+
+		StepVerifier.create(hedger.hedge(attempts(Flux.never(), Flux.just("hedge"))))
+				.expectNext("hedge")
+				.verifyComplete();
+
+		// The primary waited the whole 100ms before being cancelled; the instant hedge is not recorded
+		assertThat(hedger.hedgeDelay()).isGreaterThanOrEqualTo(Duration.ofMillis(90));
+	}
+
+	private RequestHedger hedger(Duration maxDelay) {
+		DownstreamProperties.Hedging properties = new DownstreamProperties.Hedging();
+		properties.setEnabled(true);
+		properties.setPercentile(0.5);
+		properties.setMinDelay(Duration.ofMillis(1));
+		properties.setMaxDelay(maxDelay);
+		properties.setBudgetRatio(1);
+		properties.setWindowSize(1);
+		properties.setMinSamples(1);
+		return new RequestHedger("transaction", properties, meterRegistry);
+	}
+
+	@SafeVarargs
+	private static Supplier<Flux<String>> attempts(Flux<String>... attempts) {
+		AtomicInteger attempt = new AtomicInteger();
+		return () -> attempts[attempt.getAndIncrement()];
+	}
+
+	private double counter(String name) {
+		return meterRegistry.get(name).tag("client", "transaction").counter().count();
+	}
+}
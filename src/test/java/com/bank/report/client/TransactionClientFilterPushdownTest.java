@@ -0,0 +1,94 @@
+package com.bank.report.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bank.report.cache.NearCacheProperties;
+import com.bank.report.cache.SnapshotRegistry;
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.config.DownstreamWebClientFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+/**
+ * A Transaction Service that ignores the filter parameters: it answers the whole
+ * history of C1 and an empty one for C2, whatever the filter.
+ */
+class TransactionClientFilterPushdownTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private DisposableServer server;
+	private DownstreamWebClientFactory webClientFactory;
+	private TransactionClient client;
+
+	@BeforeEach
+	void startServer() {
+		server = HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/api/transactions/customer/{customerId}", (request, response) ->
+						response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+								.sendString(Mono.just("C1".equals(request.param("customerId"))
+										? "[" + row("T1", "2024-04-10T10:00:00", "202404") + ","
+												+ row("T2", "2024-05-10T10:00:00", "202405") + "]"
+										: "[]"))))
+				.bindNow();
+
+		DownstreamProperties properties = new DownstreamProperties();
+		DownstreamProperties.Client transaction = new DownstreamProperties.Client();
+		transaction.getTimeout().setAdaptive(false);
+		properties.getClients().put("transaction", transaction);
+		webClientFactory = new DownstreamWebClientFactory(WebClient.builder(), properties, meterRegistry);
+		client = new TransactionClient(webClientFactory, properties,
+				new SnapshotRegistry(new NearCacheProperties(), meterRegistry), meterRegistry,
+				"http://localhost:" + server.port());
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.disposeNow();
+		webClientFactory.destroy();
+	}
+
+	@Test
+	void staysUnknownUntilSomethingIsDropped() {
+		StepVerifier.create(client.findByCustomerId("C2", TransactionFilter.forPeriod("202404")))
+				.verifyComplete();
+
+		assertThat(pushdown()).isEqualTo(-1);
+	}
+
+	@Test
+	void responsesWithoutDropsDoNotUndoAnIgnoredFilter() {
+		StepVerifier.create(client.findByCustomerId("C1", TransactionFilter.forPeriod("202404")))
+				.expectNextMatches(transaction -> transaction.getId().equals("T1"))
+				.verifyComplete();
+		assertThat(pushdown()).isZero();
+		assertThat(meterRegistry.get("report.transaction.filter.local.dropped").counter().count()).isEqualTo(1);
+
+		StepVerifier.create(client.findByCustomerId("C2", TransactionFilter.forPeriod("202404")))
+				.verifyComplete();
+		StepVerifier.create(client.findByCustomerId("C1", TransactionFilter.forPeriod("202405")))
+				.expectNextMatches(transaction -> transaction.getId().equals("T2"))
+				.verifyComplete();
+
+		assertThat(pushdown()).isZero();
+	}
+
+	private double pushdown() {
+		return meterRegistry.get("report.transaction.filter.pushdown").gauge().value();
+	}
+
+	private static String row(String id, String createdAt, String period) {
+		return "{\"id\":\"" + id + "\",\"transactionType\":\"DEPOSIT\",\"amount\":10.50,\"accountId\":\"A1\","
+				+ "\"customerId\":\"C1\",\"status\":\"COMPLETED\",\"balanceAfter\":10.50,"
+				+ "\"createdAt\":\"" + createdAt + "\",\"period\":\"" + period + "\"}";
+	}
+}
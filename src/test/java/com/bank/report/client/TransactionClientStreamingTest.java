@@ -0,0 +1,111 @@
+package com.bank.report.client;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bank.report.cache.NearCacheProperties;
+import com.bank.report.cache.SnapshotRegistry;
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.config.DownstreamWebClientFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+/**
+ * Streams a million-row history from a local server: decoding must stay element by
+ * element, within codec.max-in-memory-size, without ever buffering the whole response.
+ */
+class TransactionClientStreamingTest {
+
+	private static final int ROWS = 1_000_000;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private DisposableServer server;
+	private DownstreamWebClientFactory webClientFactory;
+
+	@BeforeEach
+	void startServer() {
+		server = HttpServer.create()
+				.port(0)
+				.route(routes -> routes.get("/api/transactions/customer/{customerId}", (request, response) -> {
+					boolean ndjson = request.requestHeaders().get(HttpHeaders.ACCEPT, "").contains(MediaType.APPLICATION_NDJSON_VALUE);
+					Flux<String> rows = Flux.range(0, ROWS).map(i -> row(request.param("customerId"), i));
+					return ndjson
+							? response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+									.sendString(rows.map(row -> row + "\n"))
+							: response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+									.sendString(Flux.concat(Flux.just("["),
+											rows.index().map(row -> (row.getT1() == 0 ? "" : ",") + row.getT2()),
+											Flux.just("]")));
+				}))
+				.bindNow();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.disposeNow();
+		webClientFactory.destroy();
+	}
+
+	@Test
+	void streamsNdjsonHistoryElementByElement() {
+		TransactionClient client = client(true);
+
+		StepVerifier.create(client.findByCustomerId("C1"))
+				.expectNextCount(ROWS)
+				.expectComplete()
+				.verify(Duration.ofMinutes(2));
+	}
+
+	@Test
+	void streamsJsonArrayHistoryElementByElement() {
+		TransactionClient client = client(false);
+
+		StepVerifier.create(client.findByCustomerId("C1"))
+				.expectNextCount(ROWS)
+				.expectComplete()
+				.verify(Duration.ofMinutes(2));
+	}
+
+	@Test
+	void rejectsCborThatWouldBufferTheWholeHistory() {
+		DownstreamProperties properties = new DownstreamProperties();
+		DownstreamProperties.Client transaction = new DownstreamProperties.Client();
+		transaction.getCodec().setFormat(DownstreamProperties.WireFormat.CBOR);
+		properties.getClients().put("transaction", transaction);
+		webClientFactory = new DownstreamWebClientFactory(WebClient.builder(), properties, meterRegistry);
+
+		assertThatThrownBy(() -> new TransactionClient(webClientFactory, properties,
+				new SnapshotRegistry(new NearCacheProperties(), meterRegistry), meterRegistry,
+				"http://localhost:" + server.port()))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("CBOR");
+	}
+
+	private TransactionClient client(boolean streaming) {
+		DownstreamProperties properties = new DownstreamProperties();
+		DownstreamProperties.Client transaction = new DownstreamProperties.Client();
+		transaction.getCodec().setStreaming(streaming);
+		transaction.getTimeout().setAdaptive(false);
+		properties.getClients().put("transaction", transaction);
+
+		webClientFactory = new DownstreamWebClientFactory(WebClient.builder(), properties, meterRegistry);
+		return new TransactionClient(webClientFactory, properties,
+				new SnapshotRegistry(new NearCacheProperties(), meterRegistry), meterRegistry,
+				"http://localhost:" + server.port());
+	}
+
+	private static String row(String customerId, int i) {
+		return "{\"id\":\"T" + i + "\",\"transactionType\":\"DEPOSIT\",\"amount\":10.50,\"accountId\":\"A1\","
+				+ "\"customerId\":\"" + customerId + "\",\"status\":\"COMPLETED\",\"balanceAfter\":" + i + ".25,"
+				+ "\"createdAt\":\"2024-05-01T10:15:30\",\"period\":\"202405\"}";
+	}
+}
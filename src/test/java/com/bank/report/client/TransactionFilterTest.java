@@ -0,0 +1,54 @@
+package com.bank.report.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bank.report.model.dto.TransactionResponse;
+import com.bank.report.model.enums.TransactionStatus;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class TransactionFilterTest {
+
+	@Test
+	void matchesPeriodByCreatedAt() {
+		TransactionFilter filter = TransactionFilter.forPeriod("202404");
+
+		assertThat(filter.matches(transaction("2024-04-30T23:59:59", "202405"))).isTrue();
+		assertThat(filter.matches(transaction("2024-05-01T00:00:00", "202404"))).isFalse();
+	}
+
+	@Test
+	void matchesPeriodByThePeriodFieldWithoutCreatedAt() {
+		TransactionFilter filter = TransactionFilter.forPeriod("202404");
+
+		assertThat(filter.matches(transaction(null, "202404"))).isTrue();
+		assertThat(filter.matches(transaction(null, "202405"))).isFalse();
+		assertThat(filter.matches(transaction(null, null))).isFalse();
+	}
+
+	@Test
+	void rangeNeverMatchesWithoutCreatedAt() {
+		TransactionFilter filter = TransactionFilter.builder()
+				.period("202404")
+				.from(LocalDateTime.parse("2024-04-10T00:00:00"))
+				.build();
+
+		assertThat(filter.matches(transaction(null, "202404"))).isFalse();
+		assertThat(filter.matches(transaction("2024-04-10T00:00:00", null))).isTrue();
+	}
+
+	@Test
+	void statusFilterAppliesWithoutCreatedAt() {
+		TransactionFilter filter = TransactionFilter.withStatus(TransactionStatus.FAILED);
+
+		assertThat(filter.matches(transaction(null, null))).isFalse();
+	}
+
+	private static TransactionResponse transaction(String createdAt, String period) {
+		return TransactionResponse.builder()
+				.status(TransactionStatus.COMPLETED)
+				.createdAt(createdAt != null ? LocalDateTime.parse(createdAt) : null)
+				.period(period)
+				.build();
+	}
+}
@@ -0,0 +1,95 @@
+package com.bank.report.config;
+
+import com.bank.report.model.dto.TransactionResponse;
+import com.bank.report.model.enums.TransactionStatus;
+import com.bank.report.model.enums.TransactionType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Decoding of a downstream transaction history before and after the tuned
+ * {@link DownstreamObjectMapper}: "default" is the ObjectMapper Spring Boot configures,
+ * which the WebClients used before. Scores are per decoded element; the gc profiler of the
+ * benchmark profile adds gc.alloc.rate.norm, the bytes allocated per element.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OperationsPerInvocation(DownstreamDecodeBenchmark.ELEMENTS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DownstreamDecodeBenchmark {
+
+	static final int ELEMENTS = 1_000;
+
+	@Param({"default", "tuned"})
+	public String mapper;
+
+	private ObjectReader reader;
+	private byte[] json;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = "tuned".equals(mapper)
+				? DownstreamObjectMapper.get()
+				: Jackson2ObjectMapperBuilder.json().build();
+		reader = objectMapper.readerFor(TransactionResponse.class);
+		json = Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(history());
+	}
+
+	@Benchmark
+	public void decode(Blackhole blackhole) throws IOException {
+		try (MappingIterator<TransactionResponse> elements = reader.readValues(json)) {
+			while (elements.hasNextValue()) {
+				blackhole.consume(elements.nextValue());
+			}
+		}
+	}
+
+	/**
+	 * History shaped like the transaction service responses: every amount with cents,
+	 * timestamps with and without fractional seconds.
+	 */
+	private static List<TransactionResponse> history() {
+		TransactionType[] types = TransactionType.values();
+		LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+		List<TransactionResponse> history = new ArrayList<>(ELEMENTS);
+		for (int i = 0; i < ELEMENTS; i++) {
+			history.add(TransactionResponse.builder()
+					.id("665f1c2e9b1e8a" + (100_000 + i))
+					.transactionType(types[i % types.length])
+					.amount(BigDecimal.valueOf(10_000 + i * 37L, 2))
+					.accountId("ACC-" + (i % 3))
+					.customerId("C1")
+					.status(i % 20 == 0 ? TransactionStatus.FAILED : TransactionStatus.COMPLETED)
+					.description("Transaction " + i)
+					.balanceAfter(BigDecimal.valueOf(500_000 + i * 11L, 2))
+					.createdAt(start.plusMinutes(i * 43L).plusNanos(i % 2 == 0 ? 0 : 123_000_000))
+					.commission(i % 5 == 0 ? new BigDecimal("1.50") : BigDecimal.ZERO)
+					.build());
+		}
+		return history;
+	}
+}
@@ -0,0 +1,156 @@
+package com.bank.report.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class LatencyAwareLoadBalancerTest {
+
+	private static final ServiceInstance INSTANCE_A = new DefaultServiceInstance("a", "transaction", "10.0.0.1", 8080, false);
+	private static final ServiceInstance INSTANCE_B = new DefaultServiceInstance("b", "transaction", "10.0.0.2", 8080, false);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private volatile List<ServiceInstance> instances = List.of(INSTANCE_A);
+	private LatencyAwareLoadBalancer balancer;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+			@Override
+			public String getServiceId() {
+				return "transaction";
+			}
+
+			@Override
+			public Flux<List<ServiceInstance>> get() {
+				return Flux.just(instances);
+			}
+		};
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		balancer = new LatencyAwareLoadBalancer("transaction", provider,
+				new DownstreamProperties.LoadBalancer(), meterRegistry);
+	}
+
+	@Test
+	void cancelledRequestReleasesItsSlot() {
+		AtomicReference<Request<Object>> lbRequest = new AtomicReference<>();
+		AtomicReference<Response<ServiceInstance>> lbResponse = new AtomicReference<>();
+
+		Disposable call = LatencyAwareLoadBalancer.inFlightFilter()
+				.filter(request(), balanced(lbRequest, lbResponse, Mono.never()))
+				.subscribe();
+		assertThat(inFlight("a")).isEqualTo(1);
+
+		call.dispose();
+		assertThat(inFlight("a")).isZero();
+
+		// A late completion of the same request does not release it twice
+		balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, lbRequest.get(), lbResponse.get()));
+		assertThat(inFlight("a")).isZero();
+	}
+
+	@Test
+	void completedRequestReleasesItsSlotOnce() {
+		AtomicReference<Request<Object>> lbRequest = new AtomicReference<>();
+		AtomicReference<Response<ServiceInstance>> lbResponse = new AtomicReference<>();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+
+		LatencyAwareLoadBalancer.inFlightFilter()
+				.filter(request(), balanced(lbRequest, lbResponse, Mono.just(response)))
+				.doOnNext(answer -> balancer.onComplete(new CompletionContext<>(
+						CompletionContext.Status.SUCCESS, lbRequest.get(), lbResponse.get())))
+				.block();
+
+		assertThat(inFlight("a")).isZero();
+	}
+
+	@Test
+	void dropsStatsOfInstancesThatLeaveTheRegistry() {
+		balancer.choose(new DefaultRequest<>()).block();
+		assertThat(meterRegistry.find("report.loadbalancer.in.flight").tag("instance", "a").gauge()).isNotNull();
+
+		instances = List.of(INSTANCE_B);
+		balancer.choose(new DefaultRequest<>()).block();
+
+		assertThat(meterRegistry.find("report.loadbalancer.in.flight").tag("instance", "a").gauge()).isNull();
+		assertThat(meterRegistry.find("report.loadbalancer.chosen").tag("instance", "a").counter()).isNull();
+		assertThat(meterRegistry.find("report.loadbalancer.in.flight").tag("instance", "b").gauge()).isNotNull();
+	}
+
+	@Test
+	void unsampledInstanceStillPaysForItsRequestsInFlight() {
+		instances = List.of(INSTANCE_A, INSTANCE_B);
+		// A answered once (failing, so at the failure penalty) and is idle
+		Request<Object> sampled = new DefaultRequest<>();
+		Response<ServiceInstance> toA = new DefaultResponse(INSTANCE_A);
+		balancer.onStartRequest(sampled, toA);
+		balancer.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED,
+				new IllegalStateException("down"), sampled, toA));
+		// B has not answered yet but already holds three requests
+		for (int i = 0; i < 3; i++) {
+			balancer.onStartRequest(new DefaultRequest<>(), new DefaultResponse(INSTANCE_B));
+		}
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(balancer.choose(new DefaultRequest<>()).block().getServer()).isEqualTo(INSTANCE_A);
+		}
+		assertThat(meterRegistry.get("report.loadbalancer.score").tag("instance", "b").gauge().value())
+				.isEqualTo(4 * meterRegistry.get("report.loadbalancer.score").tag("instance", "a").gauge().value());
+	}
+
+	/**
+	 * What the load balancer exchange filter does: choose, start the request and send it
+	 */
+	private ExchangeFunction balanced(AtomicReference<Request<Object>> lbRequest,
+									  AtomicReference<Response<ServiceInstance>> lbResponse,
+									  Mono<ClientResponse> answer) {
+		return request -> {
+			Request<Object> started = new DefaultRequest<>(new RequestDataContext(new RequestData(request)));
+			lbRequest.set(started);
+			return balancer.choose(started).flatMap(chosen -> {
+				lbResponse.set(chosen);
+				balancer.onStartRequest(started, chosen);
+				return answer;
+			});
+		};
+	}
+
+	private static ClientRequest request() {
+		return ClientRequest.create(HttpMethod.GET, URI.create("http://transaction/api/transactions")).build();
+	}
+
+	private double inFlight(String instance) {
+		Gauge gauge = meterRegistry.get("report.loadbalancer.in.flight").tag("instance", instance).gauge();
+		return gauge.value();
+	}
+}
@@ -0,0 +1,158 @@
+package com.bank.report.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ResponseCompressionWebFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ResponseCompressionWebFilter filter =
+			new ResponseCompressionWebFilter(new ResponseCompressionProperties(), meterRegistry);
+
+	@Test
+	void compressesLargeSingleResponse() throws IOException {
+		String body = rows(200);
+		MockServerWebExchange exchange = exchange("gzip, deflate");
+
+		filter.filter(exchange, single(body)).block();
+
+		MockServerHttpResponse response = exchange.getResponse();
+		byte[] compressed = body(response);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(response.getHeaders().getContentLength()).isEqualTo(compressed.length);
+		assertThat(compressed.length).isLessThan(body.length());
+		assertThat(gunzip(compressed)).isEqualTo(body);
+	}
+
+	@Test
+	void sendsSmallResponseAsIs() {
+		String body = rows(1);
+		MockServerWebExchange exchange = exchange("gzip");
+
+		filter.filter(exchange, single(body)).block();
+
+		MockServerHttpResponse response = exchange.getResponse();
+		assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+		assertThat(new String(body(response), StandardCharsets.UTF_8)).isEqualTo(body);
+		assertThat(meterRegistry.get("report.response.compression.skipped").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void honoursQZero() {
+		String body = rows(200);
+		MockServerWebExchange exchange = exchange("gzip;q=0, identity");
+
+		filter.filter(exchange, single(body)).block();
+
+		MockServerHttpResponse response = exchange.getResponse();
+		assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(new String(body(response), StandardCharsets.UTF_8)).isEqualTo(body);
+	}
+
+	@Test
+	void acceptsNonZeroQ() throws IOException {
+		String body = rows(200);
+		MockServerWebExchange exchange = exchange("gzip;q=0.5");
+
+		filter.filter(exchange, single(body)).block();
+
+		assertThat(gunzip(body(exchange.getResponse()))).isEqualTo(body);
+	}
+
+	@Test
+	void compressesStreamedNdjsonChunkByChunk() throws IOException {
+		MockServerWebExchange exchange = exchange("gzip");
+		WebFilterChain chain = filtered -> {
+			filtered.getResponse().getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+			return filtered.getResponse().writeAndFlushWith(Flux.range(0, 20)
+					.map(i -> Mono.just(buffer(row(i)))));
+		};
+
+		filter.filter(exchange, chain).block();
+
+		MockServerHttpResponse response = exchange.getResponse();
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(response.getHeaders().getContentLength()).isEqualTo(-1);
+		// Streamed bodies are compressed regardless of the minimum size
+		assertThat(gunzip(body(response))).isEqualTo(rows(20));
+	}
+
+	@Test
+	void compressesMultiBufferBody() throws IOException {
+		MockServerWebExchange exchange = exchange("gzip");
+		WebFilterChain chain = filtered -> filtered.getResponse()
+				.writeWith(Flux.range(0, 50).map(i -> buffer(row(i))));
+
+		filter.filter(exchange, chain).block();
+
+		assertThat(gunzip(body(exchange.getResponse()))).isEqualTo(rows(50));
+	}
+
+	@Test
+	void leavesOtherPathsAlone() {
+		String body = rows(200);
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+		filter.filter(exchange, single(body)).block();
+
+		assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+	}
+
+	private static MockServerWebExchange exchange(String acceptEncoding) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get("/api/reports/trend")
+				.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+	}
+
+	private static WebFilterChain single(String body) {
+		return exchange -> exchange.getResponse().writeWith(Mono.just(buffer(body)));
+	}
+
+	private static String rows(int count) {
+		StringBuilder rows = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			rows.append(row(i));
+		}
+		return rows.toString();
+	}
+
+	private static String row(int i) {
+		return "{\"period\":\"2024" + String.format("%02d", i % 12 + 1) + "\",\"avgDaily\":" + (1000 + i) + ".5}\n";
+	}
+
+	private static DataBuffer buffer(String value) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] body(MockServerHttpResponse response) {
+		DataBuffer joined = DataBufferUtils.join(response.getBody()).block();
+		byte[] bytes = new byte[joined.readableByteCount()];
+		joined.read(bytes);
+		return bytes;
+	}
+
+	private static String gunzip(byte[] compressed) throws IOException {
+		try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.bank.report.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+class ResponseCompressorTest {
+
+	private static final int GZIP_HEADER_LENGTH = 10;
+
+	@Test
+	void gzipRoundTrip() throws IOException {
+		ResponseCompressor compressor = compressor(ResponseCompressionProperties.Algorithm.GZIP);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		StringBuilder original = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			String row = row(i);
+			original.append(row);
+			compressed.writeBytes(bytes(compressor.compress(buffer(row))));
+		}
+		compressed.writeBytes(bytes(compressor.finish()));
+		compressor.end();
+
+		assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))))
+				.isEqualTo(original.toString());
+		assertThat(compressor.getOriginalBytes()).isEqualTo(original.length());
+		assertThat(compressor.getCompressedBytes()).isEqualTo(compressed.size());
+	}
+
+	@Test
+	void deflateRoundTrip() throws IOException {
+		ResponseCompressor compressor = compressor(ResponseCompressionProperties.Algorithm.DEFLATE);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		compressed.writeBytes(bytes(compressor.compress(buffer(row(1)))));
+		compressed.writeBytes(bytes(compressor.compress(buffer(row(2)))));
+		compressed.writeBytes(bytes(compressor.finish()));
+		compressor.end();
+
+		assertThat(decode(new InflaterInputStream(new ByteArrayInputStream(compressed.toByteArray()))))
+				.isEqualTo(row(1) + row(2));
+	}
+
+	@Test
+	void everyChunkIsFlushed() throws DataFormatException {
+		ResponseCompressor compressor = compressor(ResponseCompressionProperties.Algorithm.GZIP);
+		Inflater inflater = new Inflater(true);
+		StringBuilder received = new StringBuilder();
+		try {
+			for (int i = 0; i < 3; i++) {
+				byte[] chunk = bytes(compressor.compress(buffer(row(i))));
+				int offset = i == 0 ? GZIP_HEADER_LENGTH : 0;
+				inflater.setInput(Arrays.copyOfRange(chunk, offset, chunk.length));
+				byte[] output = new byte[4096];
+				int length = inflater.inflate(output);
+				received.append(new String(output, 0, length, StandardCharsets.UTF_8));
+
+				// Each element can be decoded as soon as its chunk arrives, before the stream ends
+				assertThat(received.toString()).endsWith(row(i));
+			}
+		} finally {
+			inflater.end();
+			compressor.end();
+		}
+	}
+
+	@Test
+	void endIsIdempotent() {
+		ResponseCompressor compressor = compressor(ResponseCompressionProperties.Algorithm.GZIP);
+
+		assertThat(compressor.end()).isTrue();
+		assertThat(compressor.end()).isFalse();
+	}
+
+	private static ResponseCompressor compressor(ResponseCompressionProperties.Algorithm algorithm) {
+		return new ResponseCompressor(DefaultDataBufferFactory.sharedInstance, algorithm, 6);
+	}
+
+	private static String row(int i) {
+		return "{\"period\":\"2024" + String.format("%02d", i % 12 + 1) + "\",\"avgDaily\":" + (1000 + i) + ".5}\n";
+	}
+
+	private static DataBuffer buffer(String value) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] bytes(DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		return bytes;
+	}
+
+	private static String decode(InputStream input) throws IOException {
+		try (input) {
+			return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
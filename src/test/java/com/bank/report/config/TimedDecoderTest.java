@@ -0,0 +1,64 @@
+package com.bank.report.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class TimedDecoderTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final TimedDecoder decoder = new TimedDecoder(new Jackson2JsonDecoder(new ObjectMapper()), "transaction", meterRegistry);
+
+	@Test
+	void leavesConsumerTimeOut() {
+		Flux<Object> decoded = decoder.decode(body("[1,", "2,3]"), ResolvableType.forClass(Integer.class),
+						MediaType.APPLICATION_JSON, Map.of())
+				.doOnNext(value -> sleep(30));
+
+		StepVerifier.create(decoded).expectNext(1, 2, 3).verifyComplete();
+
+		Timer timer = meterRegistry.get("report.downstream.decode").tag("client", "transaction").tag("format", "json").timer();
+		assertThat(timer.count()).isEqualTo(1);
+		// The consumer slept 90ms; decoding three integers takes a fraction of it
+		assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isLessThan(60);
+	}
+
+	@Test
+	void timesBodiesDecodedAtCompletion() {
+		StepVerifier.create(decoder.decodeToMono(body("{\"a\":", "1}"), ResolvableType.forClass(Map.class),
+								MediaType.APPLICATION_JSON, Map.of())
+						.doOnNext(value -> sleep(50)))
+				.expectNext(Map.of("a", 1))
+				.verifyComplete();
+
+		Timer timer = meterRegistry.get("report.downstream.decode").tag("format", "json").timer();
+		assertThat(timer.count()).isEqualTo(1);
+		assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isLessThan(50);
+	}
+
+	private static Flux<DataBuffer> body(String... chunks) {
+		return Flux.fromArray(chunks)
+				.map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
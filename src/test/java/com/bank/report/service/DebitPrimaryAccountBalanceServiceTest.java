@@ -0,0 +1,90 @@
+package com.bank.report.service;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bank.report.client.AccountClient;
+import com.bank.report.client.DebitClient;
+import com.bank.report.config.DownstreamProperties;
+import com.bank.report.model.DebitPrimaryAccountBalanceResponse;
+import com.bank.report.model.dto.AccountResponse;
+import com.bank.report.model.dto.DebitResponse;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class DebitPrimaryAccountBalanceServiceTest {
+
+	private final DebitClient debitClient = mock(DebitClient.class);
+	private final AccountClient accountClient = mock(AccountClient.class);
+	private DebitPrimaryAccountBalanceService service;
+
+	@BeforeEach
+	void setUp() {
+		DownstreamProperties properties = new DownstreamProperties();
+		DownstreamProperties.Client account = new DownstreamProperties.Client();
+		// One group per card
+		account.getBatch().setSize(1);
+		properties.getClients().put("account", account);
+		service = new DebitPrimaryAccountBalanceService(debitClient, accountClient, properties);
+
+		debit("D1", "A1");
+		debit("D2", "A2");
+		debit("D3", "A1");
+	}
+
+	@Test
+	void failedGroupLookupSkipsOnlyItsCards() {
+		when(accountClient.getAccounts(anyCollection())).thenAnswer(invocation -> {
+			Collection<String> ids = invocation.getArgument(0);
+			return ids.contains("A1")
+					? Flux.error(new WebClientResponseException(500, "Internal Server Error", null, null, null))
+					: Flux.fromIterable(ids).map(DebitPrimaryAccountBalanceServiceTest::account);
+		});
+
+		StepVerifier.create(service.getPrimaryAccountBalances(List.of("D1", "D2", "D3"))
+						.map(DebitPrimaryAccountBalanceResponse::getDebitId))
+				.expectNext("D2")
+				.verifyComplete();
+	}
+
+	@Test
+	void accountSharedByTwoGroupsIsFetchedOnce() {
+		when(accountClient.getAccounts(anyCollection())).thenAnswer(invocation -> {
+			Collection<String> ids = invocation.getArgument(0);
+			return Flux.fromIterable(List.copyOf(ids)).map(DebitPrimaryAccountBalanceServiceTest::account);
+		});
+
+		StepVerifier.create(service.getPrimaryAccountBalances(List.of("D1", "D2", "D3"))
+						.map(DebitPrimaryAccountBalanceResponse::getDebitId)
+						.collectList())
+				.expectNextMatches(debitIds -> debitIds.size() == 3 && debitIds.containsAll(List.of("D1", "D2", "D3")))
+				.verifyComplete();
+		verify(accountClient, times(2)).getAccounts(anyCollection());
+	}
+
+	private void debit(String debitId, String primaryAccountId) {
+		when(debitClient.getDebitById(debitId)).thenReturn(Mono.just(DebitResponse.builder()
+				.id(debitId)
+				.primaryAccountId(primaryAccountId)
+				.cardNumber("4000" + debitId)
+				.build()));
+	}
+
+	private static AccountResponse account(String accountId) {
+		return AccountResponse.builder()
+				.id(accountId)
+				.balance(new BigDecimal("100.00"))
+				.active(true)
+				.build();
+	}
+}
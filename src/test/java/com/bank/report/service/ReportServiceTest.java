@@ -0,0 +1,218 @@
+package com.bank.report.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bank.report.client.TransactionClient;
+import com.bank.report.client.TransactionFilter;
+import com.bank.report.config.ReportProperties;
+import com.bank.report.controller.ReportController;
+import com.bank.report.exception.BusinessRuleException;
+import com.bank.report.model.CommissionAvgResponse;
+import com.bank.report.model.DailyAvgResponse;
+import com.bank.report.model.PeriodTrend;
+import com.bank.report.model.ReportTrendResponse;
+import com.bank.report.model.StatementSummaryResponse;
+import com.bank.report.model.TransactionTypeSummary;
+import com.bank.report.model.dto.TransactionResponse;
+import com.bank.report.model.enums.TransactionStatus;
+import com.bank.report.model.enums.TransactionType;
+import com.bank.report.service.query.ReportFilterCompiler;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class ReportServiceTest {
+
+	private final TransactionClient transactionClient = mock(TransactionClient.class);
+	private final ReportProperties properties = new ReportProperties();
+	private ReportService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new ReportService(transactionClient, new ReportFilterCompiler(properties), properties);
+	}
+
+	@Test
+	void trendMatchesTheMonthlyReportsOfEveryPeriod() {
+		history(randomHistory(LocalDateTime.parse("2023-12-10T00:00:00"), LocalDateTime.parse("2024-04-10T00:00:00")));
+
+		ReportTrendResponse trend = service.calculateTrend("C1", "202401", "202403").block();
+
+		assertThat(trend.getPeriods()).extracting(PeriodTrend::getPeriod).containsExactly("202401", "202402", "202403");
+		for (PeriodTrend period : trend.getPeriods()) {
+			DailyAvgResponse dailyAverage = service.calculateDailyAverage("C1", period.getPeriod()).block();
+			CommissionAvgResponse commissions = service.calculateAverageCommissions("C1", period.getPeriod()).block();
+			assertThat(period.getAvgDaily()).isEqualTo(dailyAverage.getAvgDaily());
+			assertThat(period.getAvgCommissions()).isEqualTo(commissions.getAvgCommissions());
+		}
+	}
+
+	@Test
+	void trendWithoutHistoryHasEveryPeriodWithoutValues() {
+		history(List.of());
+
+		StepVerifier.create(service.calculateTrend("C1", "202401", "202402"))
+				.assertNext(trend -> assertThat(trend.getPeriods()).hasSize(2).allSatisfy(period -> {
+					assertThat(period.getAvgDaily()).isNull();
+					assertThat(period.getAvgCommissions()).isNull();
+				}))
+				.verifyComplete();
+	}
+
+	@Test
+	void trendSpansAtMostTheConfiguredPeriods() {
+		history(List.of());
+
+		StepVerifier.create(service.calculateTrend("C1", "202201", "202412"))
+				.assertNext(trend -> assertThat(trend.getPeriods()).hasSize(36))
+				.verifyComplete();
+		StepVerifier.create(service.calculateTrend("C1", "202201", "202501"))
+				.expectError(BusinessRuleException.class)
+				.verify();
+	}
+
+	@Test
+	void trendRejectsReversedAndInvalidPeriods() {
+		StepVerifier.create(service.calculateTrend("C1", "202403", "202401"))
+				.expectError(BusinessRuleException.class)
+				.verify();
+		StepVerifier.create(service.calculateTrend("C1", "202401", "202413"))
+				.expectError(BusinessRuleException.class)
+				.verify();
+		verify(transactionClient, never()).findByCustomerId(any(), any(TransactionFilter.class));
+	}
+
+	@Test
+	void statementSummarizesThePeriodInOnePass() {
+		history(List.of(
+				transaction("A1", "2024-03-20T10:00:00", TransactionType.DEPOSIT, TransactionStatus.COMPLETED, "500.00", "500.00", null),
+				transaction("A1", "2024-04-11T10:00:00", TransactionType.WITHDRAWAL, TransactionStatus.COMPLETED, "100.00", "400.00", "2.00"),
+				transaction("A2", "2024-04-11T12:00:00", TransactionType.DEPOSIT, TransactionStatus.COMPLETED, "300.00", "300.00", null),
+				transaction("A2", "2024-04-21T09:00:00", TransactionType.WITHDRAWAL, TransactionStatus.PENDING, "50.00", "250.00", "1.00"),
+				transaction("A2", "2024-04-22T09:00:00", TransactionType.WITHDRAWAL, TransactionStatus.FAILED, "999.00", "0.00", null),
+				transaction("A1", "2024-05-01T00:00:00", TransactionType.DEPOSIT, TransactionStatus.COMPLETED, "900.00", "1300.00", "9.00")));
+
+		StepVerifier.create(service.calculateStatementSummary("C1", "202404"))
+				.assertNext(statement -> {
+					assertThat(statement.getCustomerId()).isEqualTo("C1");
+					assertThat(statement.getPeriod()).isEqualTo("202404");
+					// Days 1-10 at 500, 11-20 at 700, 21-30 at 650; the failed withdrawal changes nothing
+					assertThat(statement.getAvgDaily()).isEqualTo(616.67);
+					assertThat(statement.getMinBalance()).isEqualTo(500.00);
+					assertThat(statement.getMaxBalance()).isEqualTo(700.00);
+					assertThat(statement.getTotalCommissions()).isEqualTo(3.00);
+					assertThat(statement.getCommissionCount()).isEqualTo(2);
+					assertThat(statement.getAvgCommissions()).isEqualTo(1.50);
+					assertThat(statement.getTransactionTypes()).hasSize(2);
+					TransactionTypeSummary deposits = statement.getTransactionTypes().get(0);
+					assertThat(deposits.getTransactionType()).isEqualTo("DEPOSIT");
+					assertThat(deposits.getCount()).isEqualTo(1);
+					assertThat(deposits.getTotalAmount()).isEqualTo(300.00);
+					TransactionTypeSummary withdrawals = statement.getTransactionTypes().get(1);
+					assertThat(withdrawals.getTransactionType()).isEqualTo("WITHDRAWAL");
+					assertThat(withdrawals.getCount()).isEqualTo(3);
+					assertThat(withdrawals.getCompleted()).isEqualTo(1);
+					assertThat(withdrawals.getPending()).isEqualTo(1);
+					assertThat(withdrawals.getFailed()).isEqualTo(1);
+					assertThat(withdrawals.getTotalAmount()).isEqualTo(100.00);
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	void statementMatchesTheMonthlyReports() {
+		history(randomHistory(LocalDateTime.parse("2024-02-10T00:00:00"), LocalDateTime.parse("2024-04-10T00:00:00")));
+
+		StatementSummaryResponse statement = service.calculateStatementSummary("C1", "202403").block();
+
+		assertThat(statement.getAvgDaily())
+				.isEqualTo(service.calculateDailyAverage("C1", "202403").block().getAvgDaily());
+		assertThat(statement.getAvgCommissions())
+				.isEqualTo(service.calculateAverageCommissions("C1", "202403").block().getAvgCommissions());
+		assertThat(statement.getMinBalance()).isLessThanOrEqualTo(statement.getAvgDaily());
+		assertThat(statement.getMaxBalance()).isGreaterThanOrEqualTo(statement.getAvgDaily());
+	}
+
+	@Test
+	void statementWithoutTransactionsOrBalancesIsNotFound() {
+		history(List.of(
+				transaction("A1", "2024-05-02T10:00:00", TransactionType.DEPOSIT, TransactionStatus.COMPLETED, "100.00", "100.00", null)));
+		ReportController controller = new ReportController(service, mock(CustomerProductsService.class),
+				mock(CustomerProductsTransactionsService.class), mock(DebitPrimaryAccountBalanceService.class));
+
+		StepVerifier.create(service.calculateStatementSummary("C1", "202404")).verifyComplete();
+		StepVerifier.create(controller.getStatementSummary("C1", "202404", null))
+				.assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND))
+				.verifyComplete();
+	}
+
+	@Test
+	void statementWithOnlyAnOpeningBalanceIsFound() {
+		history(List.of(
+				transaction("A1", "2024-03-02T10:00:00", TransactionType.DEPOSIT, TransactionStatus.COMPLETED, "100.00", "100.00", null)));
+
+		StepVerifier.create(service.calculateStatementSummary("C1", "202404"))
+				.assertNext(statement -> {
+					assertThat(statement.getAvgDaily()).isEqualTo(100.00);
+					assertThat(statement.getMinBalance()).isEqualTo(100.00);
+					assertThat(statement.getTransactionTypes()).isNullOrEmpty();
+				})
+				.verifyComplete();
+	}
+
+	private void history(List<TransactionResponse> transactions) {
+		when(transactionClient.findByCustomerId(eq("C1"), any(TransactionFilter.class)))
+				.thenReturn(Flux.fromIterable(transactions));
+	}
+
+	private static TransactionResponse transaction(String accountId, String createdAt, TransactionType type,
+			TransactionStatus status, String amount, String balanceAfter, String commission) {
+		return TransactionResponse.builder()
+				.customerId("C1")
+				.accountId(accountId)
+				.createdAt(LocalDateTime.parse(createdAt))
+				.transactionType(type)
+				.status(status)
+				.amount(new BigDecimal(amount))
+				.balanceAfter(new BigDecimal(balanceAfter))
+				.commission(commission != null ? new BigDecimal(commission) : null)
+				.build();
+	}
+
+	/**
+	 * Transactions on three accounts every few hours, some failed and some with a commission
+	 */
+	static List<TransactionResponse> randomHistory(LocalDateTime from, LocalDateTime to) {
+		Random random = new Random(11);
+		TransactionType[] types = TransactionType.values();
+		List<TransactionResponse> history = new ArrayList<>();
+		for (LocalDateTime createdAt = from; createdAt.isBefore(to);
+				createdAt = createdAt.plusMinutes(60 + random.nextInt(3 * 24 * 60))) {
+			history.add(TransactionResponse.builder()
+					.id("T" + history.size())
+					.customerId("C1")
+					.accountId("A" + random.nextInt(3))
+					.transactionType(types[random.nextInt(types.length)])
+					.status(random.nextInt(10) == 0 ? TransactionStatus.FAILED : TransactionStatus.COMPLETED)
+					.amount(BigDecimal.valueOf(1 + random.nextInt(100_000), 2))
+					.balanceAfter(BigDecimal.valueOf(random.nextInt(10_000_000), 2))
+					.commission(random.nextInt(4) == 0 ? BigDecimal.valueOf(50 + random.nextInt(500), 2) : null)
+					.createdAt(createdAt)
+					.build());
+		}
+		return history;
+	}
+}
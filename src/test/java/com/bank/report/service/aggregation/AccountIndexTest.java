@@ -0,0 +1,55 @@
+package com.bank.report.service.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class AccountIndexTest {
+
+	@Test
+	void indexesAccountsInOrderOfFirstAppearance() {
+		AccountIndex index = new AccountIndex();
+
+		assertThat(index.indexOf("B")).isZero();
+		assertThat(index.indexOf("A")).isEqualTo(1);
+		assertThat(index.indexOf("B")).isZero();
+		assertThat(index.indexOf("C")).isEqualTo(2);
+
+		assertThat(index.size()).isEqualTo(3);
+		assertThat(index.accountId(0)).isEqualTo("B");
+		assertThat(index.accountId(1)).isEqualTo("A");
+		assertThat(index.accountId(2)).isEqualTo("C");
+	}
+
+	@Test
+	void keepsEveryIndexWhileGrowing() {
+		AccountIndex index = new AccountIndex();
+		int accounts = 1_000;
+
+		// Grows past 4 keys and 8 slots several times
+		for (int i = 0; i < accounts; i++) {
+			assertThat(index.indexOf("ACC-" + i)).isEqualTo(i);
+		}
+		for (int i = 0; i < accounts; i++) {
+			assertThat(index.indexOf("ACC-" + i)).isEqualTo(i);
+			assertThat(index.accountId(i)).isEqualTo("ACC-" + i);
+		}
+		assertThat(index.size()).isEqualTo(accounts);
+	}
+
+	@Test
+	void tellsApartAccountsWithTheSameHash() {
+		AccountIndex index = new AccountIndex();
+		// "Aa" and "BB" share a hashCode, and so do their concatenations of the same length
+		String[] colliding = {"AaAa", "AaBB", "BBAa", "BBBB", "AaAaAa", "BBBBBB"};
+		assertThat(colliding[0].hashCode()).isEqualTo(colliding[3].hashCode());
+
+		for (int i = 0; i < colliding.length; i++) {
+			assertThat(index.indexOf(colliding[i])).isEqualTo(i);
+		}
+		for (int i = colliding.length - 1; i >= 0; i--) {
+			assertThat(index.indexOf(colliding[i])).isEqualTo(i);
+		}
+		assertThat(index.size()).isEqualTo(colliding.length);
+	}
+}
@@ -0,0 +1,73 @@
+package com.bank.report.service.aggregation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Allocation rate of folding amounts into sum, count, min, max and average with
+ * BigDecimal arithmetic against {@link AmountAccumulator} minor units. Scores are per
+ * amount; gc.alloc.rate.norm from the gc profiler of the benchmark profile is the
+ * number of bytes allocated per amount folded in.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(AmountAccumulatorBenchmark.AMOUNTS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AmountAccumulatorBenchmark {
+
+	static final int AMOUNTS = 10_000;
+
+	private BigDecimal[] amounts;
+
+	@Setup
+	public void setUp() {
+		amounts = new BigDecimal[AMOUNTS];
+		for (int i = 0; i < AMOUNTS; i++) {
+			amounts[i] = BigDecimal.valueOf(10_000 + i * 37L, 2);
+		}
+	}
+
+	@Benchmark
+	public void bigDecimal(Blackhole blackhole) {
+		BigDecimal sum = BigDecimal.ZERO;
+		BigDecimal min = null;
+		BigDecimal max = null;
+		for (BigDecimal amount : amounts) {
+			sum = sum.add(amount);
+			min = min == null || amount.compareTo(min) < 0 ? amount : min;
+			max = max == null || amount.compareTo(max) > 0 ? amount : max;
+		}
+		blackhole.consume(sum);
+		blackhole.consume(min);
+		blackhole.consume(max);
+		blackhole.consume(sum.divide(BigDecimal.valueOf(amounts.length), 2, RoundingMode.HALF_UP));
+	}
+
+	@Benchmark
+	public void minorUnits(Blackhole blackhole) {
+		AmountAccumulator accumulator = new AmountAccumulator();
+		for (BigDecimal amount : amounts) {
+			accumulator.add(amount);
+		}
+		blackhole.consume(accumulator.sum());
+		blackhole.consume(accumulator.min());
+		blackhole.consume(accumulator.max());
+		blackhole.consume(accumulator.average());
+	}
+}
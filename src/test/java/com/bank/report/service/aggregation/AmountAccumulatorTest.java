@@ -0,0 +1,84 @@
+package com.bank.report.service.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AmountAccumulatorTest {
+
+	@Test
+	void matchesBigDecimalOnRandomAmounts() {
+		Random random = new Random(42);
+		for (int run = 0; run < 500; run++) {
+			List<BigDecimal> amounts = new ArrayList<>();
+			int size = 1 + random.nextInt(200);
+			for (int i = 0; i < size; i++) {
+				long unscaled = random.nextLong() % 100_000_000_000L;
+				amounts.add(BigDecimal.valueOf(unscaled, random.nextInt(3)));
+			}
+			assertParity(amounts, false);
+		}
+	}
+
+	@Test
+	void roundsHalfUpAwayFromZero() {
+		assertParity(List.of(new BigDecimal("0.01"), new BigDecimal("0.02")), false);
+		assertParity(List.of(new BigDecimal("-0.01"), new BigDecimal("-0.02")), false);
+		assertParity(List.of(new BigDecimal("-0.01"), new BigDecimal("0.02"), new BigDecimal("0.02")), false);
+	}
+
+	@Test
+	void keepsMinorUnitsForTrailingZeros() {
+		assertParity(List.of(new BigDecimal("10.500"), new BigDecimal("1E+3"), new BigDecimal("7")), false);
+	}
+
+	@Test
+	void fallsBackForSubCentAmounts() {
+		assertParity(List.of(new BigDecimal("10.25"), new BigDecimal("0.125"), new BigDecimal("3")), true);
+	}
+
+	@Test
+	void fallsBackOnOverflow() {
+		List<BigDecimal> amounts = new ArrayList<>(Collections.nCopies(10, BigDecimal.valueOf(999_999_999_999_999_999L, 2)));
+		amounts.add(new BigDecimal("-1.50"));
+		assertParity(amounts, true);
+		assertParity(List.of(new BigDecimal("12345678901234567890.12"), BigDecimal.ONE), true);
+	}
+
+	@Test
+	void failsOnEmptyAverage() {
+		AmountAccumulator accumulator = new AmountAccumulator();
+		assertThat(accumulator.isEmpty()).isTrue();
+		assertThat(accumulator.min()).isNull();
+		assertThat(accumulator.max()).isNull();
+		assertThatThrownBy(accumulator::average).isInstanceOf(ArithmeticException.class);
+	}
+
+	private static void assertParity(List<BigDecimal> amounts, boolean exact) {
+		AmountAccumulator accumulator = new AmountAccumulator();
+		BigDecimal sum = BigDecimal.ZERO;
+		BigDecimal min = amounts.get(0);
+		BigDecimal max = amounts.get(0);
+		for (BigDecimal amount : amounts) {
+			accumulator.add(amount);
+			sum = sum.add(amount);
+			min = min.min(amount);
+			max = max.max(amount);
+		}
+		BigDecimal average = sum.divide(BigDecimal.valueOf(amounts.size()), 2, RoundingMode.HALF_UP);
+
+		assertThat(accumulator.isExact()).isEqualTo(exact);
+		assertThat(accumulator.getCount()).isEqualTo(amounts.size());
+		assertThat(accumulator.sum()).isEqualByComparingTo(sum);
+		assertThat(accumulator.min()).isEqualByComparingTo(min);
+		assertThat(accumulator.max()).isEqualByComparingTo(max);
+		assertThat(accumulator.average()).isEqualTo(average);
+	}
+}
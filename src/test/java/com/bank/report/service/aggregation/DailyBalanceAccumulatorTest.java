@@ -0,0 +1,160 @@
+package com.bank.report.service.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class DailyBalanceAccumulatorTest {
+
+	/** April 2024: 30 days. */
+	private static final LocalDate FIRST_DAY = LocalDate.of(2024, 4, 1);
+	private static final int DAYS = 30;
+	private static final long END = second(DAYS, 0);
+
+	@Test
+	void carriesBalancesForwardOverDaysWithoutActivity() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(0, 9), amount("100.00"))
+				.add("A", second(10, 9), amount("200.00"));
+
+		// (10 * 100 + 20 * 200) / 30
+		assertThat(balances.dailyAverage(END)).isEqualTo(amount("166.67"));
+	}
+
+	@Test
+	void startsFromTheLatestBalanceBeforeThePeriod() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(-2, 9), amount("50.00"))
+				.add("A", second(-12, 9), amount("10.00"))
+				.add("A", second(20, 9), amount("110.00"));
+
+		// (20 * 50 + 10 * 110) / 30
+		assertThat(balances.dailyAverage(END)).isEqualTo(amount("70.00"));
+	}
+
+	@Test
+	void latestTransactionOfTheDayClosesIt() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(0, 18), amount("300.00"))
+				.add("A", second(0, 9), amount("100.00"));
+
+		assertThat(balances.dailyAverage(END)).isEqualTo(amount("300.00"));
+	}
+
+	@Test
+	void sameTimestampKeepsTheTransactionThatArrivesLast() {
+		DailyBalanceAccumulator closing = accumulator()
+				.add("A", second(0, 9), amount("100.00"))
+				.add("A", second(0, 9), amount("300.00"));
+		DailyBalanceAccumulator opening = accumulator()
+				.add("A", second(-1, 9), amount("40.00"))
+				.add("A", second(-1, 9), amount("20.00"));
+
+		assertThat(closing.dailyAverage(END)).isEqualTo(amount("300.00"));
+		assertThat(opening.dailyAverage(END)).isEqualTo(amount("20.00"));
+	}
+
+	@Test
+	void countsFromTheFirstDayAnyAccountHasABalance() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(10, 9), amount("100.00"))
+				.add("B", second(20, 9), amount("50.00"));
+
+		// 10 days at 100, then 10 days at 150
+		assertThat(balances.dailyAverage(END)).isEqualTo(amount("125.00"));
+		assertThat(balances.accountDailyAverages(END)).containsExactly(
+				Map.entry("A", amount("100.00")),
+				Map.entry("B", amount("50.00")));
+		assertThat(balances.getFirstAccountId()).isEqualTo("A");
+	}
+
+	@Test
+	void partialMonthCountsOnlyTheDaysStartedSoFar() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(-1, 9), amount("100.00"))
+				.add("A", second(5, 9), amount("200.00"))
+				.add("A", second(9, 15), amount("1000.00"));
+
+		// Days 0 to 9 have started: (5 * 100 + 4 * 200 + 1000) / 10
+		assertThat(balances.dailyAverage(second(9, 12))).isEqualTo(amount("230.00"));
+		assertThat(balances.dailyAverage(second(0, 0))).isEqualTo(amount("100.00"));
+		assertThat(balances.dailyAverage(second(-1, 12))).isNull();
+	}
+
+	@Test
+	void averagesEveryRangeFromOneCarryForward() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(5, 9), amount("100.00"))
+				.add("A", second(15, 9), amount("300.00"));
+
+		assertThat(balances.dailyAverages(new int[]{0, 5, 15, DAYS}, END))
+				.containsExactly(null, amount("100.00"), amount("300.00"));
+	}
+
+	@Test
+	void ignoresBalancesAfterThePeriod() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(0, 9), amount("100.00"))
+				.add("A", second(DAYS, 9), amount("900.00"));
+
+		assertThat(balances.dailyAverage(second(DAYS + 5, 0))).isEqualTo(amount("100.00"));
+	}
+
+	@Test
+	void roundsBalancesWithMoreDecimalsToTheCent() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(0, 9), amount("10.005"));
+
+		assertThat(balances.dailyAverage(END)).isEqualTo(amount("10.01"));
+	}
+
+	@Test
+	void fallsBackToBigDecimalWhenTotalsOverflow() {
+		// 5e18 cents each: both fit in a long, their sum does not
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(0, 9), BigDecimal.valueOf(50_000_000_000_000_000L))
+				.add("B", second(0, 9), BigDecimal.valueOf(50_000_000_000_000_000L));
+
+		assertThat(balances.dailyAverage(END)).isEqualTo(amount("100000000000000000.00"));
+		assertThat(balances.accountDailyAverages(END)).containsEntry("A", amount("50000000000000000.00"));
+	}
+
+	@Test
+	void fallsBackToBigDecimalForBalancesBeyondALongOfCents() {
+		DailyBalanceAccumulator balances = accumulator()
+				.add("A", second(-1, 9), new BigDecimal("1E+30"))
+				.add("B", second(0, 9), amount("1.00"))
+				.add("A", second(15, 9), amount("2.00"));
+
+		BigDecimal expected = new BigDecimal("1E+30").multiply(BigDecimal.valueOf(15))
+				.add(amount("2.00").multiply(BigDecimal.valueOf(15)))
+				.add(amount("1.00").multiply(BigDecimal.valueOf(30)))
+				.divide(BigDecimal.valueOf(30), 2, RoundingMode.HALF_UP);
+		assertThat(balances.dailyAverage(END)).isEqualTo(expected);
+		assertThat(balances.accountDailyAverages(END).get("B")).isEqualTo(amount("1.00"));
+	}
+
+	private static DailyBalanceAccumulator accumulator() {
+		long[] dayStarts = new long[DAYS + 1];
+		for (int day = 0; day <= DAYS; day++) {
+			dayStarts[day] = second(day, 0);
+		}
+		return new DailyBalanceAccumulator(dayStarts);
+	}
+
+	/**
+	 * Epoch second of an hour of a day of the period, negative days being before it
+	 */
+	private static long second(int day, int hour) {
+		return FIRST_DAY.plusDays(day).atStartOfDay().toEpochSecond(ZoneOffset.UTC) + hour * 3600L;
+	}
+
+	private static BigDecimal amount(String value) {
+		return new BigDecimal(value);
+	}
+}
@@ -0,0 +1,88 @@
+package com.bank.report.service.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bank.report.config.ReportProperties;
+import com.bank.report.model.enums.TransactionStatus;
+import com.bank.report.model.enums.TransactionType;
+import com.bank.report.service.query.ReportFilterCompiler;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import org.junit.jupiter.api.Test;
+
+class StatementAccumulatorTest {
+
+	private static final BigDecimal NO_COMMISSION = null;
+
+	private final long[] dayStarts = new ReportFilterCompiler(new ReportProperties()).dayStarts(YearMonth.of(2024, 4));
+	private final long start = dayStarts[0];
+	private final long end = dayStarts[dayStarts.length - 1];
+
+	@Test
+	void countsEveryTypeAndStatusAndTotalsTheCompletedAmounts() {
+		StatementAccumulator statement = new StatementAccumulator(dayStarts)
+				.addTransaction(start, TransactionType.DEPOSIT, TransactionStatus.COMPLETED, amount("100.00"), NO_COMMISSION)
+				.addTransaction(start + 60, TransactionType.DEPOSIT, TransactionStatus.COMPLETED, amount("20.50"), NO_COMMISSION)
+				.addTransaction(start + 120, TransactionType.DEPOSIT, TransactionStatus.PENDING, amount("50.00"), NO_COMMISSION)
+				.addTransaction(start + 180, TransactionType.DEPOSIT, TransactionStatus.FAILED, amount("10.00"), NO_COMMISSION)
+				.addTransaction(end - 1, TransactionType.WITHDRAWAL, TransactionStatus.COMPLETED, amount("30.00"), NO_COMMISSION)
+				.addTransaction(start + 240, null, TransactionStatus.COMPLETED, amount("5.00"), NO_COMMISSION);
+
+		assertThat(statement.isEmpty()).isFalse();
+		assertThat(statement.count(TransactionType.DEPOSIT)).isEqualTo(4);
+		assertThat(statement.count(TransactionType.DEPOSIT, TransactionStatus.COMPLETED)).isEqualTo(2);
+		assertThat(statement.count(TransactionType.DEPOSIT, TransactionStatus.PENDING)).isEqualTo(1);
+		assertThat(statement.count(TransactionType.DEPOSIT, TransactionStatus.FAILED)).isEqualTo(1);
+		assertThat(statement.completedTotal(TransactionType.DEPOSIT)).isEqualTo(amount("120.50"));
+		assertThat(statement.count(TransactionType.WITHDRAWAL)).isEqualTo(1);
+		assertThat(statement.completedTotal(TransactionType.WITHDRAWAL)).isEqualTo(amount("30.00"));
+		assertThat(statement.count(TransactionType.PAYMENT)).isZero();
+		assertThat(statement.completedTotal(TransactionType.PAYMENT)).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+
+	@Test
+	void ignoresTransactionsOutsideThePeriod() {
+		StatementAccumulator statement = new StatementAccumulator(dayStarts)
+				.addTransaction(start - 1, TransactionType.DEPOSIT, TransactionStatus.COMPLETED, amount("100.00"), amount("1.00"))
+				.addTransaction(end, TransactionType.DEPOSIT, TransactionStatus.COMPLETED, amount("100.00"), amount("1.00"));
+
+		assertThat(statement.isEmpty()).isTrue();
+		assertThat(statement.count(TransactionType.DEPOSIT)).isZero();
+		assertThat(statement.getCommissions().isEmpty()).isTrue();
+	}
+
+	@Test
+	void averagesOnlyPositiveCommissions() {
+		StatementAccumulator statement = new StatementAccumulator(dayStarts)
+				.addTransaction(start, TransactionType.WITHDRAWAL, TransactionStatus.COMPLETED, amount("10.00"), amount("1.00"))
+				.addTransaction(start, TransactionType.WITHDRAWAL, TransactionStatus.FAILED, amount("10.00"), amount("2.00"))
+				.addTransaction(start, TransactionType.WITHDRAWAL, TransactionStatus.COMPLETED, amount("10.00"), BigDecimal.ZERO)
+				.addTransaction(start, TransactionType.DEPOSIT, TransactionStatus.COMPLETED, amount("10.00"), NO_COMMISSION);
+
+		AmountAccumulator commissions = statement.getCommissions();
+		assertThat(commissions.getCount()).isEqualTo(2);
+		assertThat(commissions.sum()).isEqualTo(amount("3.00"));
+		assertThat(commissions.average()).isEqualTo(amount("1.50"));
+	}
+
+	@Test
+	void balanceRangeIsThatOfTheDailyCustomerTotal() {
+		StatementAccumulator statement = new StatementAccumulator(dayStarts)
+				.addBalance("A", start - 3_600, amount("100.00"))
+				.addBalance("B", dayStarts[10] + 3_600, amount("50.00"))
+				.addBalance("A", dayStarts[20] + 3_600, amount("10.00"));
+
+		// Days 0-9 at 100, 10-19 at 150, 20-29 at 60; the lowest balanceAfter, 10, is no day's total
+		AmountAccumulator dailyTotals = statement.dailyTotals(end);
+		assertThat(dailyTotals.getCount()).isEqualTo(30);
+		assertThat(dailyTotals.min()).isEqualTo(amount("60.00"));
+		assertThat(dailyTotals.max()).isEqualTo(amount("150.00"));
+		assertThat(dailyTotals.average()).isEqualTo(amount("103.33"));
+		// Balances alone are not transactions of the period
+		assertThat(statement.isEmpty()).isTrue();
+	}
+
+	private static BigDecimal amount(String value) {
+		return new BigDecimal(value);
+	}
+}
@@ -0,0 +1,86 @@
+package com.bank.report.service.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bank.report.config.ReportProperties;
+import com.bank.report.service.query.ReportFilterCompiler;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TrendAccumulatorTest {
+
+	private static final YearMonth FIRST = YearMonth.of(2024, 1);
+	private static final YearMonth LAST = YearMonth.of(2024, 3);
+
+	private final ReportFilterCompiler compiler = new ReportFilterCompiler(new ReportProperties());
+	private final long[] periodStarts = compiler.monthStarts(FIRST, LAST);
+
+	@Test
+	void slicesDailyAveragesLikeOneAccumulatorPerMonth() {
+		TrendAccumulator trend = new TrendAccumulator(compiler.dayStarts(FIRST, LAST), periodStarts);
+		List<DailyBalanceAccumulator> months = new ArrayList<>();
+		for (YearMonth month = FIRST; !month.isAfter(LAST); month = month.plusMonths(1)) {
+			months.add(new DailyBalanceAccumulator(compiler.dayStarts(month)));
+		}
+
+		Random random = new Random(7);
+		long end = periodStarts[periodStarts.length - 1];
+		for (long second = periodStarts[0] - 20 * 86_400L; second < end + 86_400L;
+				second += 3_600 + random.nextInt(5 * 86_400)) {
+			String accountId = "A" + random.nextInt(3);
+			BigDecimal balance = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+			trend.addBalance(accountId, second, balance);
+			for (DailyBalanceAccumulator month : months) {
+				month.add(accountId, second, balance);
+			}
+		}
+
+		long midFebruary = periodStarts[1] + 14 * 86_400L + 43_200L;
+		for (long now : new long[]{end, midFebruary}) {
+			BigDecimal[] averages = trend.dailyAverages(now);
+			assertThat(averages).hasSize(3);
+			for (int period = 0; period < averages.length; period++) {
+				assertThat(averages[period]).isEqualTo(months.get(period).dailyAverage(now));
+			}
+		}
+		assertThat(trend.dailyAverages(midFebruary)[2]).isNull();
+	}
+
+	@Test
+	void bucketsCommissionsByPeriodStart() {
+		TrendAccumulator trend = new TrendAccumulator(compiler.dayStarts(FIRST, LAST), periodStarts);
+
+		trend.addCommission(periodStarts[0] - 1, new BigDecimal("100.00"))
+				.addCommission(periodStarts[0], new BigDecimal("1.00"))
+				.addCommission(periodStarts[1] - 1, new BigDecimal("3.00"))
+				.addCommission(periodStarts[1], new BigDecimal("5.00"))
+				.addCommission(periodStarts[3] - 1, new BigDecimal("7.00"))
+				.addCommission(periodStarts[3], new BigDecimal("100.00"));
+
+		assertThat(trend.periods()).isEqualTo(3);
+		assertThat(trend.commissionAverage(0)).isEqualTo(new BigDecimal("2.00"));
+		assertThat(trend.commissionAverage(1)).isEqualTo(new BigDecimal("5.00"));
+		assertThat(trend.commissionAverage(2)).isEqualTo(new BigDecimal("7.00"));
+	}
+
+	@Test
+	void periodWithoutCommissionsHasNoAverage() {
+		TrendAccumulator trend = new TrendAccumulator(compiler.dayStarts(FIRST, LAST), periodStarts)
+				.addCommission(periodStarts[0], new BigDecimal("1.00"));
+
+		assertThat(trend.commissionAverage(1)).isNull();
+	}
+
+	@Test
+	void rejectsPeriodsThatDoNotStartOnADay() {
+		long[] dayStarts = compiler.dayStarts(FIRST);
+
+		assertThatThrownBy(() -> new TrendAccumulator(dayStarts, new long[]{dayStarts[0] + 1, dayStarts[5]}))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,212 @@
+package com.bank.report.service.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bank.report.client.TransactionFilter;
+import com.bank.report.config.ReportProperties;
+import com.bank.report.exception.BusinessRuleException;
+import com.bank.report.exception.GlobalExceptionHandler;
+import com.bank.report.model.dto.TransactionResponse;
+import com.bank.report.model.enums.TransactionStatus;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class ReportFilterCompilerTest {
+
+	private static final ZoneId MADRID = ZoneId.of("Europe/Madrid");
+
+	@Test
+	void periodFollowsTheReportZoneAcrossDaylightSavingTime() {
+		ReportFilter filter = compiler(MADRID, ZoneOffset.UTC).compile(ReportQuery.forPeriod("202403"));
+
+		// March starts in CET (+01:00) and ends in CEST (+02:00)
+		assertThat(filter.test(at("2024-02-29T22:59:59"))).isFalse();
+		assertThat(filter.test(at("2024-02-29T23:00:00"))).isTrue();
+		assertThat(filter.test(at("2024-03-31T21:59:59"))).isTrue();
+		assertThat(filter.test(at("2024-03-31T22:00:00"))).isFalse();
+	}
+
+	@Test
+	void dayStartsFollowTheReportZoneAcrossDaylightSavingTime() {
+		ReportFilterCompiler compiler = compiler(MADRID, ZoneOffset.UTC);
+
+		long[] march = compiler.dayStarts(YearMonth.of(2024, 3));
+		assertThat(march).hasSize(32);
+		assertThat(march[30] - march[29]).isEqualTo(24 * 3600);
+		assertThat(march[31] - march[30]).isEqualTo(23 * 3600);
+
+		long[] october = compiler.dayStarts(YearMonth.of(2024, 10));
+		assertThat(october[27] - october[26]).isEqualTo(25 * 3600);
+	}
+
+	@Test
+	void contiguousPeriodsMergeIntoOneInterval() {
+		ReportFilter filter = compiler(ZoneOffset.UTC, ZoneOffset.UTC).compile(ReportQuery.builder()
+				.period("202402")
+				.period("202401")
+				.build());
+
+		long boundary = LocalDateTime.parse("2024-02-01T00:00:00").toEpochSecond(ZoneOffset.UTC);
+		assertThat(filter.intervalOf(boundary - 1)).isZero();
+		assertThat(filter.intervalOf(boundary)).isZero();
+		assertThat(filter.test(at("2024-01-01T00:00:00"))).isTrue();
+		assertThat(filter.test(at("2024-02-29T23:59:59"))).isTrue();
+		assertThat(filter.test(at("2024-03-01T00:00:00"))).isFalse();
+	}
+
+	@Test
+	void separatePeriodsLeaveTheGapOut() {
+		ReportFilter filter = compiler(ZoneOffset.UTC, ZoneOffset.UTC).compile(ReportQuery.builder()
+				.period("202403")
+				.period("202401")
+				.build());
+
+		assertThat(filter.test(at("2024-01-31T23:59:59"))).isTrue();
+		assertThat(filter.test(at("2024-02-15T12:00:00"))).isFalse();
+		assertThat(filter.test(at("2024-03-01T00:00:00"))).isTrue();
+		assertThat(filter.getDownstreamFilter().getPeriod()).isNull();
+		assertThat(filter.getDownstreamFilter().getFrom()).isEqualTo(LocalDateTime.parse("2024-01-01T00:00:00"));
+		assertThat(filter.getDownstreamFilter().getTo()).isEqualTo(LocalDateTime.parse("2024-04-01T00:00:00"));
+	}
+
+	@Test
+	void periodsAreCrossedWithTheDateRange() {
+		ReportFilter filter = compiler(ZoneOffset.UTC, ZoneOffset.UTC).compile(ReportQuery.builder()
+				.period("202401")
+				.period("202402")
+				.from(LocalDate.of(2024, 1, 20))
+				.to(LocalDate.of(2024, 2, 10))
+				.build());
+
+		assertThat(filter.test(at("2024-01-19T23:59:59"))).isFalse();
+		assertThat(filter.test(at("2024-01-20T00:00:00"))).isTrue();
+		assertThat(filter.test(at("2024-02-10T23:59:59"))).isTrue();
+		assertThat(filter.test(at("2024-02-11T00:00:00"))).isFalse();
+		assertThat(filter.getDownstreamFilter().getFrom()).isEqualTo(LocalDateTime.parse("2024-01-20T00:00:00"));
+		assertThat(filter.getDownstreamFilter().getTo()).isEqualTo(LocalDateTime.parse("2024-02-11T00:00:00"));
+	}
+
+	@Test
+	void periodOutsideTheDateRangeMatchesNothing() {
+		ReportFilter filter = compiler(ZoneOffset.UTC, ZoneOffset.UTC).compile(ReportQuery.builder()
+				.period("202401")
+				.from(LocalDate.of(2024, 3, 1))
+				.to(LocalDate.of(2024, 3, 31))
+				.build());
+
+		assertThat(filter.test(at("2024-01-15T12:00:00"))).isFalse();
+		assertThat(filter.test(at("2024-03-15T12:00:00"))).isFalse();
+		assertThat(filter.test(withoutCreatedAt("202401"))).isFalse();
+	}
+
+	@Test
+	void withoutCreatedAtPeriodOnlyQueriesUseThePeriodField() {
+		ReportFilter filter = compiler(MADRID, ZoneOffset.UTC).compile(ReportQuery.builder()
+				.period("202401")
+				.period("202403")
+				.build());
+
+		assertThat(filter.test(withoutCreatedAt("202401"))).isTrue();
+		assertThat(filter.test(withoutCreatedAt("202403"))).isTrue();
+		assertThat(filter.test(withoutCreatedAt("202402"))).isFalse();
+		assertThat(filter.test(withoutCreatedAt("2024-01"))).isFalse();
+		assertThat(filter.test(withoutCreatedAt(null))).isFalse();
+	}
+
+	@Test
+	void withoutCreatedAtRangeQueriesMatchNothing() {
+		ReportFilterCompiler compiler = compiler(ZoneOffset.UTC, ZoneOffset.UTC);
+		ReportFilter periodAndRange = compiler.compile(ReportQuery.builder()
+				.period("202401")
+				.from(LocalDate.of(2024, 1, 1))
+				.build());
+		ReportFilter range = compiler.compile(ReportQuery.builder()
+				.from(LocalDate.of(2024, 1, 1))
+				.to(LocalDate.of(2024, 1, 31))
+				.build());
+
+		assertThat(periodAndRange.test(withoutCreatedAt("202401"))).isFalse();
+		assertThat(range.test(withoutCreatedAt("202401"))).isFalse();
+	}
+
+	@Test
+	void singlePeriodIsPushedDownWhenTheCalendarsMatch() {
+		ReportFilter filter = compiler(ZoneOffset.ofHours(1), ZoneOffset.ofHours(1)).compile(ReportQuery.builder()
+				.period("202401")
+				.status(TransactionStatus.COMPLETED)
+				.build());
+
+		TransactionFilter downstream = filter.getDownstreamFilter();
+		assertThat(downstream.getPeriod()).isEqualTo("202401");
+		assertThat(downstream.getFrom()).isNull();
+		assertThat(downstream.getTo()).isNull();
+		assertThat(downstream.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+	}
+
+	@Test
+	void singlePeriodIsPushedDownAsARangeWhenTheZoneDiffersFromTheOffset() {
+		ReportFilter filter = compiler(MADRID, ZoneOffset.UTC).compile(ReportQuery.forPeriod("202401"));
+
+		TransactionFilter downstream = filter.getDownstreamFilter();
+		assertThat(downstream.getPeriod()).isNull();
+		assertThat(downstream.getFrom()).isEqualTo(LocalDateTime.parse("2023-12-31T23:00:00"));
+		assertThat(downstream.getTo()).isEqualTo(LocalDateTime.parse("2024-01-31T23:00:00"));
+	}
+
+	@Test
+	void openEndedRangeIsPushedDownWithOneBound() {
+		ReportFilter filter = compiler(ZoneOffset.UTC, ZoneOffset.UTC).compile(ReportQuery.builder()
+				.from(LocalDate.of(2024, 1, 1))
+				.build());
+
+		assertThat(filter.getDownstreamFilter().getFrom()).isEqualTo(LocalDateTime.parse("2024-01-01T00:00:00"));
+		assertThat(filter.getDownstreamFilter().getTo()).isNull();
+		assertThat(filter.test(at("2099-12-31T23:59:59"))).isTrue();
+	}
+
+	@Test
+	void invalidPeriodIsABadRequest() {
+		ReportFilterCompiler compiler = compiler(ZoneOffset.UTC, ZoneOffset.UTC);
+
+		assertBadRequest(() -> compiler.compile(ReportQuery.forPeriod("202413")));
+		assertBadRequest(() -> compiler.compile(ReportQuery.forPeriod("2024-01")));
+	}
+
+	@Test
+	void reversedRangeIsABadRequest() {
+		ReportFilterCompiler compiler = compiler(ZoneOffset.UTC, ZoneOffset.UTC);
+
+		assertBadRequest(() -> compiler.compile(ReportQuery.builder()
+				.from(LocalDate.of(2024, 2, 1))
+				.to(LocalDate.of(2024, 1, 31))
+				.build()));
+	}
+
+	private static void assertBadRequest(Runnable compile) {
+		assertThatThrownBy(compile::run)
+				.isInstanceOfSatisfying(BusinessRuleException.class, ex ->
+						assertThat(new GlobalExceptionHandler().handleBusinessRule(ex).getStatusCode())
+								.isEqualTo(HttpStatus.BAD_REQUEST));
+	}
+
+	private static ReportFilterCompiler compiler(ZoneId zone, ZoneOffset timestampOffset) {
+		ReportProperties properties = new ReportProperties();
+		properties.setZone(zone);
+		properties.setTimestampOffset(timestampOffset);
+		return new ReportFilterCompiler(properties);
+	}
+
+	private static TransactionResponse at(String createdAt) {
+		return TransactionResponse.builder().createdAt(LocalDateTime.parse(createdAt)).build();
+	}
+
+	private static TransactionResponse withoutCreatedAt(String period) {
+		return TransactionResponse.builder().period(period).build();
+	}
+}